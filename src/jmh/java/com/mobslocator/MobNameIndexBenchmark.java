@@ -0,0 +1,89 @@
+package com.mobslocator;
+
+import com.mobslocator.collections.IntList;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Substring lookups of 1, 2, 3 and 10 characters, as typed into the search box one
+ * key at a time, through {@link MobNameIndex} and through the scan of every name it
+ * replaced. The names are made up from words common in mob names, about as many as
+ * the bundled spawn data has.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MobNameIndexBenchmark
+{
+    private static final int NAMES = 3000;
+    private static final String[] WORDS = {
+        "goblin", "giant", "rat", "guard", "dragon", "spider", "skeleton", "zombie", "cow", "chicken",
+        "man", "woman", "hill", "moss", "fire", "ice", "lesser", "greater", "black", "blue",
+        "green", "red", "king", "queen", "dark", "wizard", "warrior", "knight", "demon", "bat",
+        "cave", "crawler", "imp", "troll", "ogre", "scorpion", "wolf", "bear", "snake", "ghost",
+    };
+
+    @Param({"r", "ra", "rat", "black drag"})
+    public String query;
+
+    private String[] names;
+    private MobNameIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        Random random = new Random(3);
+        Set<String> unique = new LinkedHashSet<>();
+        while (unique.size() < NAMES)
+        {
+            StringBuilder name = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+            for (int words = random.nextInt(3); words > 0; words--)
+            {
+                name.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            unique.add(name.toString());
+        }
+        names = unique.toArray(new String[0]);
+        index = new MobNameIndex(names);
+
+        System.out.println();
+        System.out.println("'" + query + "' matches " + index.find(query).length + " of " + names.length + " names");
+    }
+
+    @Benchmark
+    public int[] index()
+    {
+        return index.find(query);
+    }
+
+    @Benchmark
+    public int[] linearScan()
+    {
+        IntList matches = new IntList();
+        for (int id = 0; id < names.length; id++)
+        {
+            if (names[id].contains(query))
+            {
+                matches.add(id);
+            }
+        }
+        return matches.toArray();
+    }
+}
@@ -0,0 +1,119 @@
+package com.mobslocator;
+
+import java.lang.reflect.Proxy;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import net.runelite.api.NPC;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Deciding which of the 200 NPCs in a busy scene to track, as a rescan does: through
+ * {@link NpcMatchCache}, by matching every name against the compiled query, and by
+ * lowercasing every name as the plugin did before the cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NpcMatchCacheBenchmark
+{
+    private static final int NPCS = 200;
+    private static final String SEARCH = "goblin";
+    private static final String[] NAMES = {
+        "Goblin", "Man", "Woman", "Guard", "Giant rat", "Chicken", "Cow", "Banker", "Hill Giant", "Imp",
+        "Skeleton", "Zombie", "Dark wizard", "Barbarian", "Hobgoblin", "Cow calf", "Duck", "Spider", "Rat", "Al-Kharid warrior",
+    };
+
+    private final NPC[] scene = new NPC[NPCS];
+    private final MobQuery query = MobQuery.parse(SEARCH);
+    private final NpcMatchCache cache = new NpcMatchCache();
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        // A few composition ids per name, like the different looks of one kind of NPC
+        Random random = new Random(17);
+        for (int i = 0; i < NPCS; i++)
+        {
+            int name = random.nextInt(NAMES.length);
+            scene[i] = npc(1000 + name * 4 + random.nextInt(4), NAMES[name]);
+        }
+    }
+
+    @Benchmark
+    public int cached()
+    {
+        int tracked = 0;
+        for (NPC npc : scene)
+        {
+            if (cache.matches(npc, query))
+            {
+                tracked++;
+            }
+        }
+        return tracked;
+    }
+
+    @Benchmark
+    public int compiledQuery()
+    {
+        int tracked = 0;
+        for (NPC npc : scene)
+        {
+            String name = npc.getName();
+            if (name != null && query.matches(name))
+            {
+                tracked++;
+            }
+        }
+        return tracked;
+    }
+
+    @Benchmark
+    public int lowercaseContains()
+    {
+        int tracked = 0;
+        for (NPC npc : scene)
+        {
+            String name = npc.getName();
+            if (name != null && name.toLowerCase(Locale.ROOT).contains(SEARCH))
+            {
+                tracked++;
+            }
+        }
+        return tracked;
+    }
+
+    private static NPC npc(int id, String name)
+    {
+        return (NPC) Proxy.newProxyInstance(NPC.class.getClassLoader(), new Class<?>[]{NPC.class}, (proxy, method, args) ->
+        {
+            switch (method.getName())
+            {
+                case "getId":
+                    return id;
+                case "getName":
+                    return name;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    return null;
+            }
+        });
+    }
+}
@@ -0,0 +1,142 @@
+package com.mobslocator;
+
+import com.mobslocator.collections.IntList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link SpawnClusterer} against the greedy pass it replaced, which added each spawn
+ * to the first cluster with a point in range and never merged clusters. Both get the
+ * same spawns in the same order; the cluster counts each produces are printed once
+ * per trial, since the greedy pass splits chains the single linkage keeps whole.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpawnClustererBenchmark
+{
+    // As in MobSpawnData
+    private static final int CLUSTER_DISTANCE = 50;
+
+    @Param({"100", "2000", "20000"})
+    public int spawnCount;
+
+    /**
+     * "scattered": spawns anywhere on the mainland, like a mob found all over the game.
+     * "camps": spawns in groups of up to 30 along winding paths, like goblins or guards.
+     */
+    @Param({"scattered", "camps"})
+    public String layout;
+
+    private int[] spawns;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        Random random = new Random(9);
+        spawns = new int[spawnCount];
+        if (layout.equals("scattered"))
+        {
+            for (int i = 0; i < spawnCount; i++)
+            {
+                spawns[i] = PackedCoords.pack(2400 + random.nextInt(1400), 2900 + random.nextInt(900), random.nextInt(10) == 0 ? 1 : 0);
+            }
+        }
+        else
+        {
+            int x = 0;
+            int y = 0;
+            for (int i = 0; i < spawnCount; i++)
+            {
+                if (i % 30 == 0)
+                {
+                    x = 2400 + random.nextInt(1400);
+                    y = 2900 + random.nextInt(900);
+                }
+                // Each step stays within linking range of the last, but the camp wanders well past it
+                x = Math.max(0, x + random.nextInt(61) - 30);
+                y = Math.max(0, y + random.nextInt(61) - 30);
+                spawns[i] = PackedCoords.pack(x, y, 0);
+            }
+            // Data files list spawns in no particular order
+            for (int i = spawnCount - 1; i > 0; i--)
+            {
+                int j = random.nextInt(i + 1);
+                int spawn = spawns[i];
+                spawns[i] = spawns[j];
+                spawns[j] = spawn;
+            }
+        }
+
+        System.out.println();
+        System.out.println(layout + ", " + spawnCount + " spawns: " + singleLinkage().length + " clusters by single linkage, "
+            + greedy().size() + " by the greedy pass");
+    }
+
+    @Benchmark
+    public int[][] singleLinkage()
+    {
+        return SpawnClusterer.cluster(spawns, CLUSTER_DISTANCE);
+    }
+
+    @Benchmark
+    public List<IntList> greedy()
+    {
+        List<IntList> clusters = new ArrayList<>();
+        for (int spawn : spawns)
+        {
+            IntList nearby = null;
+            for (IntList cluster : clusters)
+            {
+                if (isNearby(cluster, spawn))
+                {
+                    nearby = cluster;
+                    break;
+                }
+            }
+
+            if (nearby == null)
+            {
+                nearby = new IntList(8);
+                clusters.add(nearby);
+            }
+            nearby.add(spawn);
+        }
+        return clusters;
+    }
+
+    private static boolean isNearby(IntList cluster, int spawn)
+    {
+        int x = PackedCoords.x(spawn);
+        int y = PackedCoords.y(spawn);
+        int plane = PackedCoords.plane(spawn);
+        for (int i = 0; i < cluster.size(); i++)
+        {
+            int existing = cluster.get(i);
+            if (PackedCoords.plane(existing) == plane
+                && Math.abs(PackedCoords.x(existing) - x) <= CLUSTER_DISTANCE
+                && Math.abs(PackedCoords.y(existing) - y) <= CLUSTER_DISTANCE)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
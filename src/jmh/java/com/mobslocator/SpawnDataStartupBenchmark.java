@@ -0,0 +1,118 @@
+package com.mobslocator;
+
+import com.google.gson.Gson;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Startup of {@link MobSpawnData} with spawns clustered lazily, the way it loads now,
+ * against clustering every mob up front as it used to. Each shot loads from scratch
+ * without a {@link SpawnLocationCache}, with a few thousand made-up mobs merged in as
+ * observed spawns, since the repository doesn't ship npc_spawns.json.
+ * <p>
+ * Time to first result is loading plus one search. Clustering every mob up front is
+ * emulated by looking each one up by exact name, which adds a query parse per mob.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+public class SpawnDataStartupBenchmark
+{
+    private static final int MOBS = 3000;
+    private static final Gson GSON = new Gson();
+
+    private final Map<String, int[]> observed = new HashMap<>();
+    private final List<MobQuery> everyMob = new ArrayList<>();
+    private File cacheFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException
+    {
+        // Most mobs have a handful of spawns, a few have thousands
+        Random random = new Random(22);
+        int total = 0;
+        for (int mob = 0; mob < MOBS; mob++)
+        {
+            String name = "mob " + mob + (mob % 10 == 0 ? " goblin" : "");
+            int[] spawns = new int[mob % 100 == 0 ? 1000 + random.nextInt(3000) : 1 + random.nextInt(40)];
+            int x = 2400 + random.nextInt(1400);
+            int y = 2900 + random.nextInt(900);
+            for (int i = 0; i < spawns.length; i++)
+            {
+                spawns[i] = PackedCoords.pack(x + random.nextInt(200), y + random.nextInt(200), 0);
+            }
+            observed.put(name, spawns);
+            everyMob.add(MobQuery.parse("\"" + name + "\""));
+            total += spawns.length;
+        }
+        System.out.println();
+        System.out.println(MOBS + " mobs, " + total + " spawns");
+
+        cacheFile = Files.createTempFile("spawn-locations", ".bin").toFile();
+    }
+
+    @Setup(Level.Iteration)
+    public void unload() throws ReflectiveOperationException
+    {
+        Field snapshot = MobSpawnData.class.getDeclaredField("snapshot");
+        snapshot.setAccessible(true);
+        snapshot.set(null, null);
+        // Nothing is saved, but a leftover file would be loaded as a warm start
+        cacheFile.delete();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        cacheFile.delete();
+    }
+
+    @Benchmark
+    public boolean lazyStartup()
+    {
+        MobSpawnData.initialize(GSON, observed, cacheFile);
+        return MobSpawnData.isLoaded();
+    }
+
+    @Benchmark
+    public int lazyFirstResult()
+    {
+        MobSpawnData.initialize(GSON, observed, cacheFile);
+        return MobSpawnData.getSpawnLocations(MobQuery.parse("mob 1000 goblin")).size();
+    }
+
+    @Benchmark
+    public int eagerFirstResult()
+    {
+        MobSpawnData.initialize(GSON, observed, cacheFile);
+        int locations = 0;
+        for (MobQuery mob : everyMob)
+        {
+            locations += MobSpawnData.getSpawnLocations(mob).size();
+        }
+        return locations + MobSpawnData.getSpawnLocations(MobQuery.parse("mob 1000 goblin")).size();
+    }
+}
@@ -0,0 +1,152 @@
+package com.mobslocator;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import net.runelite.api.Point;
+import net.runelite.api.coords.WorldPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A world map frame for a search with hundreds of spawn locations, drawn the way
+ * {@link MobsLocatorWorldMapOverlay} draws it: the layout update, then the markers,
+ * labels and arrows blitted from the sprite cache. The map is either left still,
+ * panned every frame, or zoomed every frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldMapMarkerBenchmark
+{
+    private static final int WIDTH = 1600;
+    private static final int HEIGHT = 900;
+    private static final int LEFT = 250;
+    private static final int RIGHT = WIDTH - 50;
+    private static final int TOP = 50;
+    private static final int BOTTOM = HEIGHT - 50;
+    private static final Color MARKER_COLOR = new Color(255, 0, 255);
+
+    @Param({"200", "500"})
+    public int locations;
+
+    private List<MobSpawnData.SpawnLocation> spawns;
+    private final WorldMapMarkerLayout layout = new WorldMapMarkerLayout();
+    private final WorldMapSpriteCache sprites = new WorldMapSpriteCache();
+    private Graphics2D graphics;
+
+    private float zoom = 4;
+    private Point mapPosition = new Point(3000, 3300);
+    private final Function<WorldPoint, Point> mapper = this::project;
+    private int frame;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        // Spread over the mainland, so some locations merge and some end up behind arrows
+        Random random = new Random(13);
+        spawns = new ArrayList<>(locations);
+        for (int i = 0; i < locations; i++)
+        {
+            WorldPoint center = new WorldPoint(2400 + random.nextInt(1400), 2900 + random.nextInt(900), 0);
+            spawns.add(new MobSpawnData.SpawnLocation("Area " + i, 1 + random.nextInt(40), center, random.nextBoolean()));
+        }
+        graphics = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        graphics.setClip(0, 0, WIDTH, HEIGHT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public int stillMap()
+    {
+        return drawFrame();
+    }
+
+    @Benchmark
+    public int panningMap()
+    {
+        frame++;
+        mapPosition = new Point(3000 + (frame & 63), 3300 - (frame & 31));
+        return drawFrame();
+    }
+
+    @Benchmark
+    public int zoomingMap()
+    {
+        frame++;
+        zoom = (frame & 1) == 0 ? 4 : 2;
+        return drawFrame();
+    }
+
+    private int drawFrame()
+    {
+        layout.update(spawns, zoom, mapPosition, LEFT, RIGHT, TOP, BOTTOM, mapper);
+        sprites.beginFrame(graphics, MARKER_COLOR);
+
+        for (int marker = 0; marker < layout.getMarkerCount(); marker++)
+        {
+            int x = layout.getMarkerX(marker);
+            int y = layout.getMarkerY(marker);
+            sprites.getStar().draw(graphics, x, y);
+
+            WorldMapSpriteCache.Sprite label = sprites.getLabel(layout.getMarkerLabel(marker));
+            int textX = x - label.width / 2;
+            if (textX >= LEFT && textX + label.width <= RIGHT)
+            {
+                label.draw(graphics, x, y + WorldMapSpriteCache.STAR_SIZE + 5);
+            }
+        }
+
+        for (int sector = 0; sector < WorldMapMarkerLayout.ARROW_SECTORS; sector++)
+        {
+            if (layout.getArrowLocations(sector) == 0)
+            {
+                continue;
+            }
+
+            int x = layout.getArrowX(sector);
+            int y = layout.getArrowY(sector);
+            sprites.getArrow(layout.getArrowAngle(sector)).draw(graphics, x, y);
+            String count = layout.getArrowLabel(sector);
+            if (count != null)
+            {
+                sprites.getLabel(count).draw(graphics, x, y + WorldMapSpriteCache.ARROW_SIZE + 2);
+            }
+        }
+        return layout.getMarkerCount();
+    }
+
+    /**
+     * A flat projection centered on the map position, standing in for the client's.
+     */
+    private Point project(WorldPoint point)
+    {
+        int x = (LEFT + RIGHT) / 2 + (int) ((point.getX() - mapPosition.getX()) * zoom);
+        int y = (TOP + BOTTOM) / 2 - (int) ((point.getY() - mapPosition.getY()) * zoom);
+        return new Point(x, y);
+    }
+}
@@ -0,0 +1,137 @@
+package com.mobslocator;
+
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import net.runelite.api.Client;
+import net.runelite.api.NPC;
+import net.runelite.api.coords.LocalPoint;
+
+/**
+ * Caches NPC convex hulls between frames. A hull is recomputed only when the
+ * NPC's composition, local position, orientation or animation frame changes,
+ * or when the camera or canvas changes, which invalidates every hull at once.
+ */
+class HullCache
+{
+    // Entries for NPCs that haven't been asked for in this many frames are dropped
+    private static final int PRUNE_INTERVAL = 100;
+
+    private final Map<NPC, Entry> entries = new IdentityHashMap<>();
+    private int frame;
+    private int generation;
+
+    private int cameraX;
+    private int cameraY;
+    private int cameraZ;
+    private int cameraPitch;
+    private int cameraYaw;
+    private int scale;
+    private int canvasWidth;
+    private int canvasHeight;
+
+    /**
+     * Must be called once per frame before {@link #get}, to pick up camera changes.
+     */
+    void beginFrame(Client client)
+    {
+        frame++;
+
+        if (client.getCameraX() != cameraX || client.getCameraY() != cameraY || client.getCameraZ() != cameraZ
+            || client.getCameraPitch() != cameraPitch || client.getCameraYaw() != cameraYaw
+            || client.getScale() != scale
+            || client.getCanvasWidth() != canvasWidth || client.getCanvasHeight() != canvasHeight)
+        {
+            cameraX = client.getCameraX();
+            cameraY = client.getCameraY();
+            cameraZ = client.getCameraZ();
+            cameraPitch = client.getCameraPitch();
+            cameraYaw = client.getCameraYaw();
+            scale = client.getScale();
+            canvasWidth = client.getCanvasWidth();
+            canvasHeight = client.getCanvasHeight();
+            generation++;
+        }
+
+        if (frame % PRUNE_INTERVAL == 0)
+        {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext())
+            {
+                if (frame - it.next().lastUsed >= PRUNE_INTERVAL)
+                {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the cached hull for the NPC, recomputing it if anything it depends on
+     * changed. The entry's hull is null if the NPC currently has none.
+     */
+    Entry get(NPC npc)
+    {
+        Entry entry = entries.get(npc);
+        if (entry == null)
+        {
+            entry = new Entry();
+            entries.put(npc, entry);
+        }
+        entry.lastUsed = frame;
+
+        LocalPoint local = npc.getLocalLocation();
+        int localX = local != null ? local.getX() : Integer.MIN_VALUE;
+        int localY = local != null ? local.getY() : Integer.MIN_VALUE;
+        int id = npc.getId();
+        int orientation = npc.getOrientation();
+        int poseAnimation = npc.getPoseAnimation();
+        int poseFrame = npc.getPoseAnimationFrame();
+        int animation = npc.getAnimation();
+        int animationFrame = npc.getAnimationFrame();
+
+        // A transform (NpcChanged) can swap the model without the NPC moving or animating
+        if (entry.generation != generation || entry.id != id || entry.localX != localX || entry.localY != localY
+            || entry.orientation != orientation || entry.poseAnimation != poseAnimation || entry.poseFrame != poseFrame
+            || entry.animation != animation || entry.animationFrame != animationFrame)
+        {
+            entry.generation = generation;
+            entry.id = id;
+            entry.localX = localX;
+            entry.localY = localY;
+            entry.orientation = orientation;
+            entry.poseAnimation = poseAnimation;
+            entry.poseFrame = poseFrame;
+            entry.animation = animation;
+            entry.animationFrame = animationFrame;
+            entry.hull = npc.getConvexHull();
+            entry.bounds = entry.hull != null ? entry.hull.getBounds() : null;
+        }
+        return entry;
+    }
+
+    void clear()
+    {
+        entries.clear();
+    }
+
+    static class Entry
+    {
+        Shape hull;
+        Rectangle bounds;
+
+        // Generation -1 never matches, so a new entry is always computed on first use
+        private int generation = -1;
+        private int lastUsed;
+        private int id;
+        private int localX;
+        private int localY;
+        private int orientation;
+        private int poseAnimation;
+        private int poseFrame;
+        private int animation;
+        private int animationFrame;
+    }
+}
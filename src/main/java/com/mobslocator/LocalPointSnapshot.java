@@ -0,0 +1,74 @@
+package com.mobslocator;
+
+import java.util.Collection;
+import net.runelite.api.NPC;
+import net.runelite.api.coords.LocalPoint;
+
+/**
+ * Local coordinates of a set of NPCs captured at one point in time, kept as
+ * parallel primitive arrays so per-frame renderers can walk them without
+ * touching the NPCs. The NPCs' own {@link LocalPoint}s are kept alongside, so
+ * renderers that project them don't create new ones every frame.
+ */
+final class LocalPointSnapshot
+{
+    static final LocalPointSnapshot EMPTY = new LocalPointSnapshot(new LocalPoint[0], new int[0], new int[0], 0);
+
+    private final LocalPoint[] points;
+    private final int[] xs;
+    private final int[] ys;
+    private final int size;
+
+    private LocalPointSnapshot(LocalPoint[] points, int[] xs, int[] ys, int size)
+    {
+        this.points = points;
+        this.xs = xs;
+        this.ys = ys;
+        this.size = size;
+    }
+
+    static LocalPointSnapshot of(Collection<NPC> npcs)
+    {
+        if (npcs.isEmpty())
+        {
+            return EMPTY;
+        }
+
+        LocalPoint[] points = new LocalPoint[npcs.size()];
+        int[] xs = new int[npcs.size()];
+        int[] ys = new int[npcs.size()];
+        int size = 0;
+        for (NPC npc : npcs)
+        {
+            LocalPoint local = npc.getLocalLocation();
+            if (local != null)
+            {
+                points[size] = local;
+                xs[size] = local.getX();
+                ys[size] = local.getY();
+                size++;
+            }
+        }
+        return new LocalPointSnapshot(points, xs, ys, size);
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    LocalPoint get(int i)
+    {
+        return points[i];
+    }
+
+    int getX(int i)
+    {
+        return xs[i];
+    }
+
+    int getY(int i)
+    {
+        return ys[i];
+    }
+}
@@ -0,0 +1,141 @@
+package com.mobslocator;
+
+import com.mobslocator.collections.IntList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Inverted n-gram index over lowercased mob names, answering substring queries
+ * without scanning every name.
+ * <p>
+ * Every 1-, 2- and 3-character gram of every name gets a sorted posting list of
+ * name ids. Queries of up to three characters are answered by a single posting
+ * list. Longer queries intersect the posting lists of their trigrams and then
+ * verify the few remaining candidates with {@link String#contains}.
+ */
+final class MobNameIndex
+{
+    private static final int MAX_GRAM = 3;
+    private static final int[] NO_MATCHES = new int[0];
+
+    private final String[] names;
+    private final Map<String, int[]> postings;
+
+    /**
+     * @param names lowercased mob names; a name's position in this array is its id
+     */
+    MobNameIndex(String[] names)
+    {
+        this.names = names;
+
+        Map<String, IntList> building = new HashMap<>();
+        for (int id = 0; id < names.length; id++)
+        {
+            String name = names[id];
+            for (int length = 1; length <= MAX_GRAM; length++)
+            {
+                for (int start = 0; start + length <= name.length(); start++)
+                {
+                    IntList posting = building.computeIfAbsent(name.substring(start, start + length), k -> new IntList(4));
+                    // ids are added in increasing order, so only the last entry can be a duplicate
+                    if (posting.isEmpty() || posting.get(posting.size() - 1) != id)
+                    {
+                        posting.add(id);
+                    }
+                }
+            }
+        }
+
+        postings = new HashMap<>(building.size() * 2);
+        for (Map.Entry<String, IntList> entry : building.entrySet())
+        {
+            postings.put(entry.getKey(), entry.getValue().toArray());
+        }
+    }
+
+    int size()
+    {
+        return names.length;
+    }
+
+    String getName(int id)
+    {
+        return names[id];
+    }
+
+    /**
+     * Returns the ids, in increasing order, of every name containing {@code query}.
+     * The query must already be lowercased, and the returned array may be shared
+     * with the index, so callers must not modify it.
+     */
+    int[] find(String query)
+    {
+        if (query.isEmpty())
+        {
+            return NO_MATCHES;
+        }
+
+        if (query.length() <= MAX_GRAM)
+        {
+            int[] posting = postings.get(query);
+            return posting != null ? posting : NO_MATCHES;
+        }
+
+        // Start from the rarest trigram so the intersection shrinks as fast as possible
+        int[][] lists = new int[query.length() - MAX_GRAM + 1][];
+        for (int start = 0; start < lists.length; start++)
+        {
+            int[] posting = postings.get(query.substring(start, start + MAX_GRAM));
+            if (posting == null)
+            {
+                return NO_MATCHES;
+            }
+            lists[start] = posting;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+
+        // Copied because intersect() narrows the candidates in place
+        int[] candidates = lists[0].clone();
+        int count = candidates.length;
+        for (int i = 1; i < lists.length && count > 0; i++)
+        {
+            count = intersect(candidates, count, lists[i]);
+        }
+
+        // Trigrams can all be present without being adjacent, so confirm each candidate
+        int[] matches = new int[count];
+        int matchCount = 0;
+        for (int i = 0; i < count; i++)
+        {
+            if (names[candidates[i]].contains(query))
+            {
+                matches[matchCount++] = candidates[i];
+            }
+        }
+        return matchCount == matches.length ? matches : Arrays.copyOf(matches, matchCount);
+    }
+
+    /**
+     * Keeps the first {@code count} entries of {@code candidates} that also appear in
+     * {@code posting}, compacting them to the front, and returns how many were kept.
+     */
+    private static int intersect(int[] candidates, int count, int[] posting)
+    {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count && j < posting.length; i++)
+        {
+            int id = candidates[i];
+            while (j < posting.length && posting[j] < id)
+            {
+                j++;
+            }
+            if (j < posting.length && posting[j] == id)
+            {
+                candidates[kept++] = id;
+            }
+        }
+        return kept;
+    }
+}
@@ -0,0 +1,299 @@
+package com.mobslocator;
+
+import com.mobslocator.collections.IntIntHashMap;
+import com.mobslocator.collections.IntList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A parsed and compiled mob search.
+ * <p>
+ * The search text is a comma-separated list of terms, matched case-insensitively:
+ * <ul>
+ * <li>{@code giant} matches names containing "giant"</li>
+ * <li>{@code hill*} matches names starting with "hill"</li>
+ * <li>{@code "goblin"} matches only the name "goblin"</li>
+ * <li>a leading {@code !} turns any of these into an exclusion, e.g. {@code !baby*}</li>
+ * </ul>
+ * A name matches if any included term matches it and no excluded term does.
+ * <p>
+ * All terms are compiled into one Aho-Corasick automaton, so a name is checked
+ * against every term in a single pass over its characters. Prefix and exact terms
+ * are anchored with marker characters that the name is wrapped in while matching.
+ */
+final class MobQuery
+{
+    static final MobQuery EMPTY = parse("");
+
+    // Wrapped around names while matching, so anchored terms can only match at the ends
+    private static final char START = '\u0002';
+    private static final char END = '\u0003';
+
+    private static final byte INCLUDED = 1;
+    private static final byte EXCLUDED = 2;
+
+    private final List<Term> terms;
+    private final String text;
+    private final boolean anyIncluded;
+
+    // Goto function keyed by state << 16 | char; missing entries fall back along fail links
+    private final IntIntHashMap transitions = new IntIntHashMap();
+    private final int[] fail;
+    // Which kinds of term end in each state, including those reached through its fail links
+    private final byte[] output;
+
+    private MobQuery(List<Term> terms)
+    {
+        this.terms = Collections.unmodifiableList(terms);
+
+        StringBuilder text = new StringBuilder();
+        boolean anyIncluded = false;
+        for (Term term : terms)
+        {
+            if (text.length() > 0)
+            {
+                text.append(", ");
+            }
+            text.append(term);
+            anyIncluded |= !term.excluded;
+        }
+        this.text = text.toString();
+        this.anyIncluded = anyIncluded;
+
+        // Build the trie, one state per distinct pattern prefix
+        List<IntList> children = new ArrayList<>();
+        IntList outputs = new IntList();
+        children.add(new IntList());
+        outputs.add(0);
+        for (Term term : terms)
+        {
+            String pattern = term.pattern();
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++)
+            {
+                char c = pattern.charAt(i);
+                int next = transitions.get(transitionKey(state, c), -1);
+                if (next < 0)
+                {
+                    next = children.size();
+                    children.add(new IntList());
+                    outputs.add(0);
+                    transitions.put(transitionKey(state, c), next);
+                    children.get(state).add(c);
+                }
+                state = next;
+            }
+            outputs.set(state, outputs.get(state) | (term.excluded ? EXCLUDED : INCLUDED));
+        }
+
+        int states = children.size();
+        fail = new int[states];
+        output = new byte[states];
+        for (int state = 0; state < states; state++)
+        {
+            output[state] = (byte) outputs.get(state);
+        }
+
+        // Breadth first, so every state's fail target is finished before the state itself
+        IntList queue = new IntList();
+        queue.add(0);
+        for (int head = 0; head < queue.size(); head++)
+        {
+            int state = queue.get(head);
+            IntList chars = children.get(state);
+            for (int i = 0; i < chars.size(); i++)
+            {
+                char c = (char) chars.get(i);
+                int child = transitions.get(transitionKey(state, c), -1);
+                if (state != 0)
+                {
+                    fail[child] = step(fail[state], c);
+                    output[child] |= output[fail[child]];
+                }
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Parses search text as typed into the config. Blank terms are ignored.
+     */
+    static MobQuery parse(String search)
+    {
+        List<Term> terms = new ArrayList<>();
+        if (search != null)
+        {
+            for (String part : search.split(","))
+            {
+                String value = part.trim().toLowerCase(Locale.ROOT);
+                boolean excluded = value.startsWith("!");
+                if (excluded)
+                {
+                    value = value.substring(1).trim();
+                }
+
+                Term.Kind kind = Term.Kind.CONTAINS;
+                if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\""))
+                {
+                    kind = Term.Kind.EXACT;
+                    value = value.substring(1, value.length() - 1).trim();
+                }
+                else if (value.endsWith("*"))
+                {
+                    kind = Term.Kind.PREFIX;
+                    value = value.substring(0, value.length() - 1).trim();
+                }
+
+                if (!value.isEmpty())
+                {
+                    terms.add(new Term(value, kind, excluded));
+                }
+            }
+        }
+        return new MobQuery(terms);
+    }
+
+    /**
+     * True if no name can match, i.e. there are no included terms.
+     */
+    boolean isEmpty()
+    {
+        return !anyIncluded;
+    }
+
+    List<Term> getTerms()
+    {
+        return terms;
+    }
+
+    /**
+     * Whether the name matches the query. The name doesn't need to be lowercased.
+     */
+    boolean matches(String name)
+    {
+        int hits = hits(name);
+        return (hits & INCLUDED) != 0 && (hits & EXCLUDED) == 0;
+    }
+
+    /**
+     * Whether the name matches one of the excluded terms. The name doesn't need to be lowercased.
+     */
+    boolean isExcluded(String name)
+    {
+        return (hits(name) & EXCLUDED) != 0;
+    }
+
+    private int hits(String name)
+    {
+        int state = step(0, START);
+        int hits = output[state];
+        for (int i = 0; i < name.length(); i++)
+        {
+            state = step(state, Character.toLowerCase(name.charAt(i)));
+            hits |= output[state];
+        }
+        state = step(state, END);
+        return hits | output[state];
+    }
+
+    private int step(int state, char c)
+    {
+        while (true)
+        {
+            int next = transitions.get(transitionKey(state, c), -1);
+            if (next >= 0)
+            {
+                return next;
+            }
+            if (state == 0)
+            {
+                return 0;
+            }
+            state = fail[state];
+        }
+    }
+
+    private static int transitionKey(int state, char c)
+    {
+        return (state << 16) | c;
+    }
+
+    /**
+     * The normalized search text, which is the same for equivalent searches.
+     */
+    @Override
+    public String toString()
+    {
+        return text;
+    }
+
+    static final class Term
+    {
+        enum Kind
+        {
+            CONTAINS,
+            PREFIX,
+            EXACT
+        }
+
+        final String value;
+        final Kind kind;
+        final boolean excluded;
+
+        private Term(String value, Kind kind, boolean excluded)
+        {
+            this.value = value;
+            this.kind = kind;
+            this.excluded = excluded;
+        }
+
+        /**
+         * Whether the lowercased name matches this term on its own.
+         */
+        boolean matches(String name)
+        {
+            switch (kind)
+            {
+                case EXACT:
+                    return name.equals(value);
+                case PREFIX:
+                    return name.startsWith(value);
+                default:
+                    return name.contains(value);
+            }
+        }
+
+        private String pattern()
+        {
+            switch (kind)
+            {
+                case EXACT:
+                    return START + value + END;
+                case PREFIX:
+                    return START + value;
+                default:
+                    return value;
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            String text;
+            switch (kind)
+            {
+                case EXACT:
+                    text = "\"" + value + "\"";
+                    break;
+                case PREFIX:
+                    text = value + "*";
+                    break;
+                default:
+                    text = value;
+            }
+            return excluded ? "!" + text : text;
+        }
+    }
+}
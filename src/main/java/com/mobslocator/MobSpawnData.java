@@ -1,362 +1,575 @@
 package com.mobslocator;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.mobslocator.collections.IntHashSet;
+import com.mobslocator.collections.IntList;
 import net.runelite.api.coords.WorldPoint;
 import lombok.extern.slf4j.Slf4j;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 public class MobSpawnData
 {
-    private static final Map<String, List<SpawnLocation>> MOB_SPAWNS = new HashMap<>();
-    private static final List<Region> REGIONS = new ArrayList<>();
     private static final int CLUSTER_DISTANCE = 50;
-    private static boolean initialized = false;
+    // Written by SpawnIndexWriter, which the buildSpawnIndex task in build.gradle runs
+    private static final String SPAWN_INDEX = "/spawn_index.bin";
+    static final int SPAWN_INDEX_MAGIC = 0x4D4C5349; // "MLSI"
+    static final int SPAWN_INDEX_VERSION = 1;
+    private static volatile Snapshot snapshot;
     private static Gson gson;
-
-    public static synchronized void initialize(Gson gsonInstance)
+    // Separate from the class lock initialize() holds, so a save never waits on a load or the other way round
+    private static final Object SAVE_LOCK = new Object();
+
+    /**
+     * Loads the raw spawn data, adds the spawns observed in play by the {@link SpawnRecorder},
+     * then publishes it all as a snapshot. Spawns are kept packed
+     * and are only clustered into locations when a search first asks for a mob (see
+     * {@link Snapshot#getLocations(String)}), or are read back from the
+     * {@link SpawnLocationCache} when they were clustered in an earlier session from the
+     * same data. Loading is still slow and is run on a background executor from
+     * {@link MobsLocatorPlugin#startUp()}; render code must only ever read the
+     * published snapshot through {@link #isLoaded()} and {@link #getSpawnLocations(MobQuery)}.
+     *
+     * @param cacheFile where clustered locations are cached, normally {@link SpawnLocationCache#CACHE_FILE}
+     */
+    public static synchronized void initialize(Gson gsonInstance, Map<String, int[]> observedSpawns, File cacheFile)
     {
-        if (initialized)
+        if (snapshot != null)
         {
             return;
         }
 
         gson = gsonInstance;
-        loadRegions();
-        loadSpawnData();
-        initialized = true;
-    }
 
-    private static void loadRegions()
-    {
-        loadRegionsFromFile("/surface_areas.json");
-        loadRegionsFromFile("/regions.json");
-        REGIONS.sort((a, b) -> Integer.compare(a.getArea(), b.getArea()));
-        log.info("Loaded {} region definitions", REGIONS.size());
+        List<RegionIndex.Region> regions = new ArrayList<>();
+        Map<String, int[]> rawSpawnsByName = new HashMap<>();
+        // Hashes the bundled resources as they are read, to key the cache of clustered locations
+        MessageDigest digest = SpawnLocationCache.newKeyDigest();
+        if (!loadSpawnIndex(regions, rawSpawnsByName, digest))
+        {
+            digest.reset();
+            loadRegionsFromFile("/surface_areas.json", regions, digest);
+            loadRegionsFromFile("/regions.json", regions, digest);
+            loadSpawnData(rawSpawnsByName, digest);
+        }
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(CLUSTER_DISTANCE).array());
+        byte[] cacheKey = digest.digest();
+        // Not part of the key, so learning a spawn only invalidates the cached locations of its own mob
+        mergeObservedSpawns(rawSpawnsByName, observedSpawns);
+
+        RegionIndex regionIndex = new RegionIndex(regions);
+        log.info("Loaded {} region definitions", regionIndex.size());
+
+        log.info("Loaded spawn data for {} different mobs", rawSpawnsByName.size());
+
+        String[] names = rawSpawnsByName.keySet().toArray(new String[0]);
+        Arrays.sort(names);
+        Map<String, List<SpawnLocation>> cached = SpawnLocationCache.load(cacheFile, cacheKey,
+            name -> SpawnLocationCache.hashSpawns(rawSpawnsByName.get(name)));
+        log.debug("Loaded cached spawn locations of {} mobs", cached.size());
+        snapshot = new Snapshot(rawSpawnsByName, new MobNameIndex(names), regionIndex, cacheFile, cacheKey, cached);
     }
 
-    private static void loadRegionsFromFile(String filename)
+    /**
+     * Writes the spawn locations clustered so far to the {@link SpawnLocationCache}, if
+     * any were clustered since the last save. Does file I/O, so keep it off the client thread.
+     */
+    public static void saveCache()
     {
-        try
+        synchronized (SAVE_LOCK)
         {
-            InputStream inputStream = MobSpawnData.class.getResourceAsStream(filename);
-            if (inputStream == null)
+            Snapshot current = snapshot;
+            if (current == null || current.locations.size() == current.savedCount)
             {
-                log.error("Could not find {} resource", filename);
                 return;
             }
-            JsonArray jsonArray = gson.fromJson(new InputStreamReader(inputStream), JsonArray.class);
 
-            for (JsonElement element : jsonArray)
-            {
-                JsonObject obj = element.getAsJsonObject();
-                
-                if (!obj.has("name") || !obj.has("bounds"))
-                {
-                    continue;
-                }
+            Map<String, List<SpawnLocation>> locations = new HashMap<>(current.locations);
+            SpawnLocationCache.save(current.cacheFile, current.cacheKey, locations,
+                name -> SpawnLocationCache.hashSpawns(current.rawSpawns.get(name)));
+            current.savedCount = locations.size();
+        }
+    }
 
-                String name = obj.get("name").getAsString();
-                JsonArray boundsArray = obj.getAsJsonArray("bounds");
-                
-                if (boundsArray.size() != 2)
-                {
-                    continue;
-                }
+    public static boolean isLoaded()
+    {
+        return snapshot != null;
+    }
 
-                JsonArray minBounds = boundsArray.get(0).getAsJsonArray();
-                JsonArray maxBounds = boundsArray.get(1).getAsJsonArray();
+    /**
+     * Name of the area a packed world position (see {@link PackedCoords}) is in, as
+     * used for spawn locations. Cheap enough to call per NPC per tick. Returns null
+     * while the spawn data is still loading.
+     */
+    public static String getAreaName(int position)
+    {
+        Snapshot current = snapshot;
+        return current != null
+            ? current.regionIndex.getAreaName(PackedCoords.x(position), PackedCoords.y(position), PackedCoords.plane(position))
+            : null;
+    }
 
-                int minX = minBounds.get(0).getAsInt();
-                int minY = minBounds.get(1).getAsInt();
-                int maxX = maxBounds.get(0).getAsInt();
-                int maxY = maxBounds.get(1).getAsInt();
+    /**
+     * Loads regions and raw spawns from the precompiled binary index with a single
+     * bulk read. Returns false if the index is not on the classpath (e.g. when
+     * running from an IDE without the Gradle build), so the JSON resources can be
+     * used instead.
+     */
+    private static boolean loadSpawnIndex(List<RegionIndex.Region> regions, Map<String, int[]> rawSpawnsByName, MessageDigest digest)
+    {
+        try (InputStream inputStream = MobSpawnData.class.getResourceAsStream(SPAWN_INDEX))
+        {
+            if (inputStream == null)
+            {
+                log.debug("No precompiled spawn index, falling back to JSON resources");
+                return false;
+            }
 
-                REGIONS.add(new Region(name, minX, minY, maxX, maxY));
+            byte[] bytes = inputStream.readAllBytes();
+            digest.update(bytes);
+            if (!readSpawnIndex(ByteBuffer.wrap(bytes), regions, rawSpawnsByName))
+            {
+                log.warn("Ignoring spawn index with unexpected header");
+                return false;
             }
+            return true;
         }
         catch (Exception e)
         {
-            log.error("Error loading {}", filename, e);
+            log.error("Error loading spawn index", e);
+            regions.clear();
+            rawSpawnsByName.clear();
+            return false;
         }
     }
 
-    private static void loadSpawnData()
+    /**
+     * Reads regions and raw spawns from the index format {@link SpawnIndexWriter} writes,
+     * from a buffer wrapping an array. Returns false if the header doesn't match; a
+     * truncated index throws a {@link java.nio.BufferUnderflowException}.
+     */
+    static boolean readSpawnIndex(ByteBuffer buffer, List<RegionIndex.Region> regions, Map<String, int[]> rawSpawnsByName)
     {
-        try
+        if (buffer.getInt() != SPAWN_INDEX_MAGIC || buffer.getInt() != SPAWN_INDEX_VERSION)
         {
-            InputStream inputStream = MobSpawnData.class.getResourceAsStream("/npc_spawns.json");
-            if (inputStream == null)
-            {
-                log.error("Could not find npc_spawns.json resource");
-                return;
-            }
-            JsonArray jsonArray = gson.fromJson(new InputStreamReader(inputStream), JsonArray.class);
-            
-            Map<String, List<NpcSpawn>> rawSpawnsByName = new HashMap<>();
+            return false;
+        }
 
-            for (JsonElement element : jsonArray)
-            {
-                JsonObject obj = element.getAsJsonObject();
-                
-                if (!obj.has("name") || !obj.has("x") || !obj.has("y") || !obj.has("p"))
-                {
-                    continue;
-                }
+        String[] names = new String[buffer.getInt()];
+        for (int i = 0; i < names.length; i++)
+        {
+            int length = buffer.getShort() & 0xFFFF;
+            names[i] = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        }
 
-                String name = obj.get("name").getAsString();
+        int regionCount = buffer.getInt();
+        for (int i = 0; i < regionCount; i++)
+        {
+            regions.add(new RegionIndex.Region(names[buffer.getInt()], buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt()));
+        }
 
-                int x = obj.get("x").getAsInt();
-                int y = obj.get("y").getAsInt();
-                int plane = obj.get("p").getAsInt();
+        int mobCount = buffer.getInt();
+        for (int i = 0; i < mobCount; i++)
+        {
+            String mobName = names[buffer.getInt()];
+            int[] spawns = new int[buffer.getInt()];
+            IntBuffer coords = buffer.asIntBuffer();
+            coords.get(spawns);
+            buffer.position(buffer.position() + spawns.length * Integer.BYTES);
+            rawSpawnsByName.put(mobName, spawns);
+        }
+        return true;
+    }
 
-                WorldPoint worldPoint = new WorldPoint(x, y, plane);
-                
-                rawSpawnsByName.computeIfAbsent(name.toLowerCase(), k -> new ArrayList<>())
-                    .add(new NpcSpawn(worldPoint, name));
-            }
+    /**
+     * Opens a JSON resource for streaming, or returns null if it is not on the classpath.
+     * Everything read from it is also fed to {@code digest}.
+     */
+    private static JsonReader openJsonResource(String filename, MessageDigest digest)
+    {
+        InputStream inputStream = MobSpawnData.class.getResourceAsStream(filename);
+        if (inputStream == null)
+        {
+            log.error("Could not find {} resource", filename);
+            return null;
+        }
+        return gson.newJsonReader(new BufferedReader(new InputStreamReader(new DigestInputStream(inputStream, digest), StandardCharsets.UTF_8)));
+    }
 
-            for (Map.Entry<String, List<NpcSpawn>> entry : rawSpawnsByName.entrySet())
-            {
-                String mobName = entry.getKey();
-                List<NpcSpawn> spawns = entry.getValue();
-                
-                List<SpawnLocation> clusterLocations = clusterSpawns(spawns);
-                MOB_SPAWNS.put(mobName, clusterLocations);
-            }
+    private static void loadRegionsFromFile(String filename, List<RegionIndex.Region> regions, MessageDigest digest)
+    {
+        JsonReader reader = openJsonResource(filename, digest);
+        if (reader == null)
+        {
+            return;
+        }
 
-            log.info("Loaded spawn data for {} different mobs", MOB_SPAWNS.size());
+        try (reader)
+        {
+            readRegions(reader, regions);
         }
         catch (Exception e)
         {
-            log.error("Error loading NPC spawn data", e);
+            log.error("Error loading {}", filename, e);
         }
     }
 
-    private static List<SpawnLocation> clusterSpawns(List<NpcSpawn> spawns)
+    /**
+     * Reads regions in the regions.json format, in file order, skipping any without a
+     * name or well-formed bounds.
+     */
+    static void readRegions(JsonReader reader, List<RegionIndex.Region> regions) throws IOException
     {
-        List<SpawnCluster> clusters = new ArrayList<>();
-
-        for (NpcSpawn spawn : spawns)
+        reader.beginArray();
+        while (reader.hasNext())
         {
-            boolean addedToCluster = false;
+            String name = null;
+            int[] bounds = null;
 
-            for (SpawnCluster cluster : clusters)
+            reader.beginObject();
+            while (reader.hasNext())
             {
-                if (cluster.isNearby(spawn.worldPoint, CLUSTER_DISTANCE))
+                switch (reader.nextName())
                 {
-                    cluster.add(spawn);
-                    addedToCluster = true;
-                    break;
+                    case "name":
+                        name = reader.nextString();
+                        break;
+                    case "bounds":
+                        bounds = readBounds(reader);
+                        break;
+                    default:
+                        reader.skipValue();
                 }
             }
+            reader.endObject();
 
-            if (!addedToCluster)
+            if (name != null && bounds != null)
             {
-                SpawnCluster newCluster = new SpawnCluster();
-                newCluster.add(spawn);
-                clusters.add(newCluster);
+                regions.add(new RegionIndex.Region(name, bounds[0], bounds[1], bounds[2], bounds[3]));
             }
         }
-
-        return clusters.stream()
-            .map(cluster -> new SpawnLocation(
-                getAreaName(cluster.getCenter()),
-                cluster.getCount(),
-                cluster.getCenter(),
-                isMembersArea(cluster.getCenter())
-            ))
-            .collect(Collectors.toList());
+        reader.endArray();
     }
 
-    private static String getAreaName(WorldPoint point)
+    /**
+     * Reads {@code [[minX, minY], [maxX, maxY]]}, returning null if it has any other shape.
+     */
+    private static int[] readBounds(JsonReader reader) throws IOException
     {
-        for (Region region : REGIONS)
+        int[] bounds = new int[4];
+        int corners = 0;
+        boolean valid = true;
+
+        reader.beginArray();
+        while (reader.hasNext())
         {
-            if (region.contains(point))
+            if (corners >= 2 || reader.peek() != JsonToken.BEGIN_ARRAY)
             {
-                if (region.name.equals("Gielinor Surface"))
+                reader.skipValue();
+                valid = false;
+                continue;
+            }
+
+            int coords = 0;
+            reader.beginArray();
+            while (reader.hasNext())
+            {
+                if (coords < 2)
+                {
+                    bounds[corners * 2 + coords] = reader.nextInt();
+                }
+                else
                 {
-                    return getNearestSurfaceArea(point);
+                    reader.skipValue();
                 }
-                return region.name;
+                coords++;
             }
+            reader.endArray();
+
+            valid &= coords >= 2;
+            corners++;
         }
+        reader.endArray();
 
-        return String.format("Unknown Area (%d, %d)", point.getX(), point.getY());
+        return valid && corners == 2 ? bounds : null;
     }
 
-    private static String getNearestSurfaceArea(WorldPoint point)
+    /**
+     * Streams npc_spawns.json into the raw spawns, or leaves them empty if it can't be read.
+     */
+    private static void loadSpawnData(Map<String, int[]> rawSpawnsByName, MessageDigest digest)
     {
-        Region nearestRegion = null;
-        int minDistance = Integer.MAX_VALUE;
+        JsonReader reader = openJsonResource("/npc_spawns.json", digest);
+        if (reader == null)
+        {
+            return;
+        }
 
-        for (Region region : REGIONS)
+        try (reader)
         {
-            if (region.name.equals("Gielinor Surface") || 
-                region.name.contains("Dungeon") || 
-                region.name.contains("Cave") || 
-                region.name.contains("Underground"))
+            readSpawnData(reader, rawSpawnsByName);
+        }
+        catch (Exception e)
+        {
+            log.error("Error loading NPC spawn data", e);
+        }
+    }
+
+    /**
+     * Reads spawns in the npc_spawns.json format one entry at a time into a packed int
+     * buffer per mob, so neither the JSON tree nor a boxed object per spawn is ever built.
+     * Nothing is added to {@code rawSpawnsByName} unless the whole array is read.
+     */
+    static void readSpawnData(JsonReader reader, Map<String, int[]> rawSpawnsByName) throws IOException
+    {
+        Map<String, IntList> spawnsByName = new HashMap<>();
+        reader.beginArray();
+        while (reader.hasNext())
+        {
+            String name = null;
+            int x = 0;
+            int y = 0;
+            int plane = 0;
+            // One bit per required coordinate field seen
+            int seen = 0;
+
+            reader.beginObject();
+            while (reader.hasNext())
             {
-                continue;
+                switch (reader.nextName())
+                {
+                    case "name":
+                        name = reader.nextString();
+                        break;
+                    case "x":
+                        x = reader.nextInt();
+                        seen |= 1;
+                        break;
+                    case "y":
+                        y = reader.nextInt();
+                        seen |= 2;
+                        break;
+                    case "p":
+                        plane = reader.nextInt();
+                        seen |= 4;
+                        break;
+                    default:
+                        reader.skipValue();
+                }
             }
+            reader.endObject();
 
-            WorldPoint regionCenter = region.getCenter();
-            int distance = point.distanceTo(regionCenter);
-
-            if (distance < minDistance)
+            if (name == null || seen != 7)
             {
-                minDistance = distance;
-                nearestRegion = region;
+                continue;
             }
-        }
 
-        if (nearestRegion != null)
-        {
-            return nearestRegion.name;
+            spawnsByName.computeIfAbsent(name.toLowerCase(Locale.ROOT), k -> new IntList())
+                .add(PackedCoords.pack(x, y, plane));
         }
+        reader.endArray();
 
-        return "Gielinor Surface";
-    }
-
-    private static boolean isMembersArea(WorldPoint point)
-    {
-        int x = point.getX();
-        int y = point.getY();
-
-        if (x >= 2944 && x <= 3392 && y >= 3136 && y <= 3712 && point.getPlane() == 0)
+        for (Map.Entry<String, IntList> entry : spawnsByName.entrySet())
         {
-            return false;
+            rawSpawnsByName.put(entry.getKey(), entry.getValue().toArray());
         }
-
-        return true;
     }
 
-    public static List<SpawnLocation> getSpawnLocations(String mobName, Gson gsonInstance)
+    /**
+     * Adds the spawn tiles seen in play that the bundled data doesn't already have. They
+     * change the clusters of their mob, which the spawn hash stored with its cached
+     * locations catches.
+     *
+     * @param observedSpawns sorted packed tiles by lowercase mob name, see {@link SpawnRecorder#compact()}
+     */
+    private static void mergeObservedSpawns(Map<String, int[]> rawSpawnsByName, Map<String, int[]> observedSpawns)
     {
-        if (!initialized)
-        {
-            initialize(gsonInstance);
-        }
-        
-        String searchTerm = mobName.toLowerCase().trim();
-        log.debug("Searching for: '{}'", searchTerm);
-        
-        if (MOB_SPAWNS.containsKey(searchTerm))
-        {
-            log.debug("Found exact match for: {}", searchTerm);
-            return MOB_SPAWNS.get(searchTerm);
-        }
-        
-        List<SpawnLocation> matchingSpawns = new ArrayList<>();
-        for (Map.Entry<String, List<SpawnLocation>> entry : MOB_SPAWNS.entrySet())
+        int added = 0;
+        for (Map.Entry<String, int[]> entry : observedSpawns.entrySet())
         {
-            if (entry.getKey().contains(searchTerm))
+            String name = entry.getKey();
+            int[] observed = entry.getValue();
+            int[] known = rawSpawnsByName.getOrDefault(name, new int[0]);
+            IntHashSet knownSet = new IntHashSet(known.length);
+            IntList merged = new IntList(known.length + observed.length);
+            for (int spawn : known)
+            {
+                knownSet.add(spawn);
+                merged.add(spawn);
+            }
+            for (int spawn : observed)
             {
-                log.debug("Found partial match: {}", entry.getKey());
-                matchingSpawns.addAll(entry.getValue());
+                if (knownSet.add(spawn))
+                {
+                    merged.add(spawn);
+                }
+            }
+
+            if (merged.size() > known.length)
+            {
+                added += merged.size() - known.length;
+                rawSpawnsByName.put(name, merged.toArray());
             }
         }
-        
-        log.debug("Total matches found: {}", matchingSpawns.size());
-        return matchingSpawns;
+        log.info("Added {} spawns observed in play", added);
     }
 
-   
-
-    private static class Region
+    private static List<SpawnLocation> clusterSpawns(int[] spawns, RegionIndex regionIndex)
     {
-        final String name;
-        final int minX;
-        final int minY;
-        final int maxX;
-        final int maxY;
+        int[][] clusters = SpawnClusterer.cluster(spawns, CLUSTER_DISTANCE);
 
-        Region(String name, int minX, int minY, int maxX, int maxY)
+        List<SpawnLocation> locations = new ArrayList<>(clusters.length);
+        for (int[] cluster : clusters)
         {
-            this.name = name;
-            this.minX = minX;
-            this.minY = minY;
-            this.maxX = maxX;
-            this.maxY = maxY;
-        }
-
-        boolean contains(WorldPoint point)
-        {
-            int x = point.getX();
-            int y = point.getY();
-            return x >= minX && x <= maxX && y >= minY && y <= maxY;
+            WorldPoint center = getCenter(cluster);
+            locations.add(new SpawnLocation(getAreaName(regionIndex, center), cluster.length, center, isMembersArea(center)));
         }
+        return locations;
+    }
 
-        int getArea()
+    /**
+     * Average position of a cluster's packed spawns. Clusters never span planes.
+     */
+    private static WorldPoint getCenter(int[] cluster)
+    {
+        long sumX = 0;
+        long sumY = 0;
+        for (int point : cluster)
         {
-            return (maxX - minX) * (maxY - minY);
+            sumX += PackedCoords.x(point);
+            sumY += PackedCoords.y(point);
         }
+        return new WorldPoint((int) (sumX / cluster.length), (int) (sumY / cluster.length), PackedCoords.plane(cluster[0]));
+    }
 
-        WorldPoint getCenter()
-        {
-            int centerX = (minX + maxX) / 2;
-            int centerY = (minY + maxY) / 2;
-            return new WorldPoint(centerX, centerY, 0);
-        }
+    private static String getAreaName(RegionIndex regionIndex, WorldPoint point)
+    {
+        return regionIndex.getAreaName(point.getX(), point.getY(), point.getPlane());
     }
 
-    private static class NpcSpawn
+    private static boolean isMembersArea(WorldPoint point)
     {
-        final WorldPoint worldPoint;
-        final String name;
+        int x = point.getX();
+        int y = point.getY();
 
-        NpcSpawn(WorldPoint worldPoint, String name)
+        if (x >= 2944 && x <= 3392 && y >= 3136 && y <= 3712 && point.getPlane() == 0)
         {
-            this.worldPoint = worldPoint;
-            this.name = name;
+            return false;
         }
+
+        return true;
     }
 
-    private static class SpawnCluster
+    /**
+     * Returns the known spawn locations of every mob the query matches, or an empty
+     * list while the spawn data is still loading. Never waits for loading, but the
+     * first search that selects a mob clusters that mob's spawns.
+     * <p>
+     * A plain term that is exactly the name of a mob selects just that mob, so
+     * searching "goblin" shows goblins but not hobgoblins.
+     */
+    static List<SpawnLocation> getSpawnLocations(MobQuery query)
     {
-        private final List<WorldPoint> points = new ArrayList<>();
-
-        void add(NpcSpawn spawn)
+        Snapshot current = snapshot;
+        if (current == null || query.isEmpty())
         {
-            points.add(spawn.worldPoint);
+            return Collections.emptyList();
         }
 
-        boolean isNearby(WorldPoint point, int maxDistance)
+        log.debug("Searching for: '{}'", query);
+
+        boolean[] selected = new boolean[current.nameIndex.size()];
+        for (MobQuery.Term term : query.getTerms())
         {
-            for (WorldPoint existing : points)
+            if (term.excluded)
+            {
+                continue;
+            }
+
+            boolean exactName = term.kind == MobQuery.Term.Kind.CONTAINS && current.rawSpawns.containsKey(term.value);
+            if (exactName)
+            {
+                log.debug("Found exact match for: {}", term.value);
+            }
+            // Every kind of term matches a substring of the name, so the n-gram index narrows all of them down
+            for (int id : current.nameIndex.find(term.value))
             {
-                if (existing.distanceTo(point) <= maxDistance)
+                String name = current.nameIndex.getName(id);
+                if (exactName ? name.equals(term.value) : term.matches(name))
                 {
-                    return true;
+                    selected[id] = true;
                 }
             }
-            return false;
         }
 
-        WorldPoint getCenter()
+        List<SpawnLocation> matchingSpawns = new ArrayList<>();
+        for (int id = 0; id < selected.length; id++)
         {
-            if (points.isEmpty())
+            if (selected[id] && !query.isExcluded(current.nameIndex.getName(id)))
             {
-                return new WorldPoint(0, 0, 0);
+                String name = current.nameIndex.getName(id);
+                log.debug("Found match: {}", name);
+                matchingSpawns.addAll(current.getLocations(name));
             }
+        }
 
-            int avgX = (int) points.stream().mapToInt(WorldPoint::getX).average().orElse(0);
-            int avgY = (int) points.stream().mapToInt(WorldPoint::getY).average().orElse(0);
-            int plane = points.get(0).getPlane();
+        log.debug("Total matches found: {}", matchingSpawns.size());
+        return matchingSpawns;
+    }
+   
 
-            return new WorldPoint(avgX, avgY, plane);
+    /**
+     * Everything the render thread reads, published in one volatile write once loading finishes.
+     * <p>
+     * Only the packed spawns are loaded up front. A session searches a handful of mobs
+     * out of thousands, so each mob's spawns are clustered and their areas named the
+     * first time it is looked up, exactly once even if several threads ask at once.
+     * Mobs clustered in an earlier session start out already looked up.
+     */
+    private static class Snapshot
+    {
+        final Map<String, int[]> rawSpawns;
+        final MobNameIndex nameIndex;
+        final RegionIndex regionIndex;
+        final File cacheFile;
+        final byte[] cacheKey;
+        final Map<String, List<SpawnLocation>> locations;
+        // Number of mobs in the cache file, guarded by SAVE_LOCK
+        int savedCount;
+
+        Snapshot(Map<String, int[]> rawSpawns, MobNameIndex nameIndex, RegionIndex regionIndex,
+                 File cacheFile, byte[] cacheKey, Map<String, List<SpawnLocation>> cached)
+        {
+            this.rawSpawns = Collections.unmodifiableMap(rawSpawns);
+            this.nameIndex = nameIndex;
+            this.regionIndex = regionIndex;
+            this.cacheFile = cacheFile;
+            this.cacheKey = cacheKey;
+            this.locations = new ConcurrentHashMap<>(cached);
+            this.savedCount = cached.size();
         }
 
-        int getCount()
+        /**
+         * The clustered spawn locations of a mob, by lowercase name. The name must be one of the loaded mobs.
+         */
+        List<SpawnLocation> getLocations(String name)
         {
-            return points.size();
+            return locations.computeIfAbsent(name,
+                k -> Collections.unmodifiableList(clusterSpawns(rawSpawns.get(k), regionIndex)));
         }
     }
 
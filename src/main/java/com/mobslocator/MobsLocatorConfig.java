@@ -26,7 +26,7 @@ public interface MobsLocatorConfig extends Config
     @ConfigItem(
             keyName = "searchedMob",
             name = "Search for Mob",
-            description = "Enter the name of the mob you want to locate, then click the game screen to activate",
+            description = "Enter the name of the mob you want to locate, then click the game screen to activate. Separate several mobs with commas; use \"name\" for an exact name, name* for a prefix and !name to exclude",
             section = searchSection,
             position = 0
     )
@@ -48,6 +48,18 @@ public interface MobsLocatorConfig extends Config
         return true;
     }
 
+    @ConfigItem(
+            keyName = "recordSpawns",
+            name = "Learn Spawns",
+            description = "Remember where mobs spawn while you play, and include those spawns in future searches",
+            section = searchSection,
+            position = 2
+    )
+    default boolean recordSpawns()
+    {
+        return true;
+    }
+
     @ConfigItem(
             keyName = "hullColor",
             name = "Hull Highlight Color",
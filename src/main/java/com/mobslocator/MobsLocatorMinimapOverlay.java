@@ -4,23 +4,27 @@ import javax.inject.Inject;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
 import net.runelite.api.Client;
-import net.runelite.api.NPC;
+import net.runelite.api.Player;
 import net.runelite.api.Point;
-import net.runelite.api.coords.LocalPoint;
-import net.runelite.api.coords.WorldPoint;
 import net.runelite.client.ui.overlay.Overlay;
 import net.runelite.client.ui.overlay.OverlayLayer;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.OverlayPriority;
-import net.runelite.client.ui.overlay.OverlayUtil;
 import net.runelite.api.Perspective;
 
 public class MobsLocatorMinimapOverlay extends Overlay
 {
+    // Radius in pixels past which a dot can't be on the minimap, with some margin over the visible circle
+    private static final int MINIMAP_RADIUS = 80;
+
     private final Client client;
     private final MobsLocatorPlugin plugin;
     private final MobsLocatorConfig config;
+    private final Path2D.Float dots = new Path2D.Float();
+    private final Ellipse2D.Float dot = new Ellipse2D.Float();
 
     @Inject
     public MobsLocatorMinimapOverlay(Client client, MobsLocatorPlugin plugin, MobsLocatorConfig config)
@@ -41,46 +45,57 @@ public class MobsLocatorMinimapOverlay extends Overlay
             return null;
         }
 
-        String searchedMob = config.searchedMob().trim().toLowerCase();
-        if (searchedMob.isEmpty())
+        if (plugin.getSearch().isEmpty())
         {
             return null;
         }
 
-        // Hot pink color (255, 0, 255)
-        // Use configured minimap dot color
-        Color dotColor = config.minimapDotColor();
+        Player player = client.getLocalPlayer();
+        if (player == null || player.getLocalLocation() == null)
+        {
+            return null;
+        }
 
-        // Draw dots for searched mobs
-        for (NPC npc : plugin.getSearchedMobs())
+        LocalPointSnapshot points = plugin.getSnapshot().getLocalPoints();
+        if (points.size() == 0)
         {
-            if (npc == null || npc.getWorldLocation() == null)
-            {
-                continue;
-            }
+            return null;
+        }
+
+        // Anything further than the minimap shows can't be drawn, so skip it before projecting
+        int playerX = player.getLocalLocation().getX();
+        int playerY = player.getLocalLocation().getY();
+        double zoom = client.getMinimapZoom();
+        long maxDistance = (long) (MINIMAP_RADIUS / Math.max(zoom, 1) * Perspective.LOCAL_TILE_SIZE);
+        long maxDistanceSquared = maxDistance * maxDistance;
 
-            LocalPoint localPoint = LocalPoint.fromWorld(client, npc.getWorldLocation());
-            if (localPoint == null)
+        // Collect every dot into one shape, so they're filled and outlined in two draw calls
+        dots.reset();
+        for (int i = 0; i < points.size(); i++)
+        {
+            long dx = points.getX(i) - playerX;
+            long dy = points.getY(i) - playerY;
+            if (dx * dx + dy * dy > maxDistanceSquared)
             {
                 continue;
             }
 
-            Point minimapPoint = Perspective.localToMinimap(client, localPoint);
+            Point minimapPoint = Perspective.localToMinimap(client, points.get(i));
             if (minimapPoint == null)
             {
                 continue;
             }
 
-            // Draw a hot pink dot on the minimap
-            // Draw dot on the minimap
-            graphics.setColor(dotColor);
-            graphics.fillOval(minimapPoint.getX() - 2, minimapPoint.getY() - 2, 4, 4);
-
-            // Draw a black border around the dot
-            graphics.setColor(Color.BLACK);
-            graphics.drawOval(minimapPoint.getX() - 2, minimapPoint.getY() - 2, 4, 4);
+            dot.setFrame(minimapPoint.getX() - 2, minimapPoint.getY() - 2, 4, 4);
+            dots.append(dot, false);
         }
 
+        // Use configured minimap dot color, with a black border around each dot
+        graphics.setColor(config.minimapDotColor());
+        graphics.fill(dots);
+        graphics.setColor(Color.BLACK);
+        graphics.draw(dots);
+
         return null;
     }
-}
\ No newline at end of file
+}
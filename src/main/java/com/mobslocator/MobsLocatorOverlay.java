@@ -1,9 +1,13 @@
 package com.mobslocator;
 
 import javax.inject.Inject;
+import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import net.runelite.api.Client;
 import net.runelite.api.NPC;
@@ -20,12 +24,50 @@ import net.runelite.api.widgets.Widget;
 
 public class MobsLocatorOverlay extends Overlay
 {
+    // How far the player can move before the spawn list is re-sorted by distance
+    private static final int RESORT_DISTANCE = 8;
+    // Nearby NPCs past this distance aren't colored, and aren't counted in the panel title
+    private static final int NEARBY_RADIUS = 25;
+    private static final int MAX_RESPAWN_LINES = 3;
+    private static final Color RESPAWN_COLOR = new Color(255, 165, 0);
+    private static final Color MEMBERS_COLOR = new Color(255, 215, 0);
+    private static final Color F2P_COLOR = new Color(192, 192, 192);
+    private static final BasicStroke HULL_STROKE = new BasicStroke(2);
+
     private final Client client;
     private final MobsLocatorPlugin plugin;
     private final MobsLocatorConfig config;
     private final PanelComponent leftPanel = new PanelComponent();
     private final PanelComponent rightPanel = new PanelComponent();
 
+    // Panel components are built when their inputs change and reused for every frame in between
+    private final TitleComponent leftTitle = TitleComponent.builder().text("All Locations").color(Color.CYAN).build();
+    private final TitleComponent rightTitle = TitleComponent.builder().text("Nearby").color(Color.CYAN).build();
+    private final List<LineComponent> leftLines = new ArrayList<>();
+    private final List<LineComponent> rightLines = new ArrayList<>();
+    private final Dimension leftPanelSize = new Dimension();
+    private final Dimension rightPanelSize = new Dimension();
+    private boolean leftPanelResized;
+    private boolean rightPanelResized;
+
+    // The inputs the panels were last built from
+    private SearchSession.Result leftBuiltFor;
+    private WorldPoint leftSortedFrom;
+    private TrackingSnapshot panelsBuiltFor;
+    private int rightTitleCount = -1;
+
+    private Color backgroundSource;
+    private Color background;
+    // Each panel's background, pre-rendered at the panel's size
+    private BufferedImage leftBackground;
+    private BufferedImage rightBackground;
+
+    private final HullCache hullCache = new HullCache();
+    // Derived from the configured hull color whenever it changes
+    private Color hullColorSource;
+    private Color hullBorderColor;
+    private Color hullFillColor;
+
     @Inject
     public MobsLocatorOverlay(Client client, MobsLocatorPlugin plugin, MobsLocatorConfig config)
     {
@@ -39,6 +81,8 @@ public class MobsLocatorOverlay extends Overlay
         // Make panels transparent so we can draw our own background
         leftPanel.setBackgroundColor(null);
         rightPanel.setBackgroundColor(null);
+        leftPanel.setPreferredSize(new Dimension(250, 0));
+        rightPanel.setPreferredSize(new Dimension(200, 0));
     }
 
     @Override
@@ -50,8 +94,6 @@ public class MobsLocatorOverlay extends Overlay
             return null;
         }
 
-        plugin.hasSearchTermChanged();
-
         //Widget worldMap = client.getWidget(ComponentID.WORLD_MAP_VIEW);
         Widget worldMap = client.getWidget(595, 25);  // World map widget
         if (worldMap != null && !worldMap.isHidden())
@@ -59,135 +101,220 @@ public class MobsLocatorOverlay extends Overlay
             return null;
         }
 
-        renderMobHighlights(graphics);
+        SearchSession.Result search = plugin.getSearch();
+        if (search.isEmpty())
+        {
+            return null;
+        }
 
-        String searchedMob = config.searchedMob().trim();
+        TrackingSnapshot snapshot = plugin.getSnapshot();
+        renderMobHighlights(graphics, snapshot);
 
-        if (!searchedMob.isEmpty() && config.showSearchResults())
+        if (config.showSearchResults())
         {
-            renderSideBySidePanels(graphics, localPlayer.getWorldLocation(), searchedMob);
+            renderSideBySidePanels(graphics, snapshot, localPlayer, search);
         }
 
         return null;
     }
 
-    private void renderSideBySidePanels(Graphics2D graphics, WorldPoint playerLocation, String searchedMob)
+    /**
+     * Drops the hulls cached between frames. They are otherwise only pruned while the overlay renders.
+     */
+    void clearHullCache()
+    {
+        hullCache.clear();
+    }
+
+    private void renderSideBySidePanels(Graphics2D graphics, TrackingSnapshot snapshot, Player localPlayer, SearchSession.Result search)
+    {
+        // Everything the panels show changes at most once per game tick, or when the search changes
+        if (snapshot != panelsBuiltFor || search != leftBuiltFor)
+        {
+            WorldPoint playerLocation = snapshot.getPlayerLocation() != null
+                ? snapshot.getPlayerLocation() : localPlayer.getWorldLocation();
+
+            if (search != leftBuiltFor || leftSortedFrom == null
+                || leftSortedFrom.getPlane() != playerLocation.getPlane()
+                || leftSortedFrom.distanceTo(playerLocation) > RESORT_DISTANCE)
+            {
+                buildLocationsPanel(playerLocation, search);
+                leftBuiltFor = search;
+                leftSortedFrom = playerLocation;
+                leftPanelResized = true;
+            }
+
+            if (snapshot != panelsBuiltFor)
+            {
+                buildNearbyPanel(snapshot);
+                panelsBuiltFor = snapshot;
+                rightPanelResized = true;
+            }
+        }
+
+        Color bgColor = config.backgroundColor();
+        if (bgColor != backgroundSource)
+        {
+            backgroundSource = bgColor;
+            background = new Color(bgColor.getRed(), bgColor.getGreen(), bgColor.getBlue(), 100);
+            leftBackground = null;
+            rightBackground = null;
+        }
+
+        // Render panels with transparent backgrounds
+        leftBackground = renderPanelWithTransparentBackground(graphics, leftPanel, leftPanelSize, leftBackground, leftPanelResized, 0, 0);
+        rightBackground = renderPanelWithTransparentBackground(graphics, rightPanel, rightPanelSize, rightBackground, rightPanelResized, 260, 0);
+        leftPanelResized = false;
+        rightPanelResized = false;
+    }
+
+    private void buildLocationsPanel(WorldPoint playerLocation, SearchSession.Result search)
     {
         leftPanel.getChildren().clear();
-        leftPanel.setPreferredSize(new Dimension(250, 0));
+        leftPanel.getChildren().add(leftTitle);
+
+        if (!search.isLoaded())
+        {
+            leftPanel.getChildren().add(line(leftLines, 0, "Loading spawn data...", Color.GRAY, null, null));
+            return;
+        }
+
+        if (search.getSpawnLocations().isEmpty())
+        {
+            leftPanel.getChildren().add(line(leftLines, 0, "No data available", Color.GRAY, null, null));
+            return;
+        }
 
+        // Each distance is computed once and packed above the spawn's index, so sorting is a primitive
+        // sort and equally distant spawns keep their result order
+        List<MobSpawnData.SpawnLocation> spawns = search.getSpawnLocations();
+        long[] byDistance = new long[spawns.size()];
+        for (int i = 0; i < byDistance.length; i++)
+        {
+            byDistance[i] = ((long) playerLocation.distanceTo(spawns.get(i).getApproximateCenter()) << 32) | i;
+        }
+        Arrays.sort(byDistance);
+
+        for (int i = 0; i < byDistance.length; i++)
+        {
+            MobSpawnData.SpawnLocation spawn = spawns.get((int) byDistance[i]);
+            leftPanel.getChildren().add(line(leftLines, i,
+                    "- " + spawn.getAreaName() + " (" + spawn.getCount() + " spawns)", Color.WHITE,
+                    spawn.isMembers() ? " [M]" : " [F2P]", spawn.isMembers() ? MEMBERS_COLOR : F2P_COLOR));
+        }
+    }
+
+    private void buildNearbyPanel(TrackingSnapshot snapshot)
+    {
         rightPanel.getChildren().clear();
-        rightPanel.setPreferredSize(new Dimension(90, 0));
-
-        List<MobSpawnData.SpawnLocation> knownSpawns = MobSpawnData.getSpawnLocations(searchedMob.toLowerCase(), plugin.getGson());
-
-        leftPanel.getChildren().add(TitleComponent.builder()
-                .text("All Locations")
-                .color(Color.CYAN)
-                .build());
-
-        if (!knownSpawns.isEmpty())
-        {
-            knownSpawns.stream()
-                    .sorted((a, b) -> Integer.compare(
-                            playerLocation.distanceTo(a.getApproximateCenter()),
-                            playerLocation.distanceTo(b.getApproximateCenter())
-                    ))
-                    .forEach(spawn -> {
-                        String membersTag = spawn.isMembers() ? " [M]" : " [F2P]";
-                        String locationInfo = String.format("- %s (%d spawns)",
-                                spawn.getAreaName(),
-                                spawn.getCount());
-
-                        Color tagColor = spawn.isMembers() ? new Color(255, 215, 0) : new Color(192, 192, 192);
-
-                        leftPanel.getChildren().add(LineComponent.builder()
-                                .left(locationInfo)
-                                .leftColor(Color.WHITE)
-                                .right(membersTag)
-                                .rightColor(tagColor)
-                                .build());
-                    });
-        }
-        else
-        {
-            leftPanel.getChildren().add(LineComponent.builder()
-                    .left("No data available")
-                    .leftColor(Color.GRAY)
-                    .build());
-        }
-
-        rightPanel.getChildren().add(TitleComponent.builder()
-                .text("Nearby")
-                .color(Color.CYAN)
-                .build());
-
-        List<NPC> nearbyMobs = plugin.getSearchedMobs();
-
-        if (!nearbyMobs.isEmpty())
-        {
-            nearbyMobs.stream()
-                    .filter(npc -> npc.getWorldLocation() != null)
-                    .sorted((a, b) -> Integer.compare(
-                            playerLocation.distanceTo(a.getWorldLocation()),
-                            playerLocation.distanceTo(b.getWorldLocation())
-                    ))
-                    .limit(10)
-                    .forEach(npc -> {
-                        int distance = playerLocation.distanceTo(npc.getWorldLocation());
-                        String locationInfo = String.format("%d tiles away", distance);
-                        Color textColor = distance <= 10 ? Color.GREEN :
-                                distance <= 25 ? Color.YELLOW : Color.WHITE;
-
-                        rightPanel.getChildren().add(LineComponent.builder()
-                                .left(locationInfo)
-                                .leftColor(textColor)
-                                .build());
-                    });
-        }
-        else
-        {
-            rightPanel.getChildren().add(LineComponent.builder()
-                    .left("None nearby")
-                    .leftColor(Color.GRAY)
-                    .build());
+        rightPanel.getChildren().add(rightTitle);
+
+        // Only rename the title when the count changes, rather than building its text every tick
+        int withinRadius = snapshot.countWithin(NEARBY_RADIUS);
+        if (withinRadius != rightTitleCount)
+        {
+            rightTitle.setText(withinRadius > 0 ? "Nearby (" + withinRadius + ")" : "Nearby");
+            rightTitleCount = withinRadius;
         }
 
-        // Render panels with transparent backgrounds
-        renderPanelWithTransparentBackground(graphics, leftPanel, 0, 0);
-        renderPanelWithTransparentBackground(graphics, rightPanel, 260, 0);
+        int nearbyCount = snapshot.getNearestCount();
+        int lineCount = 0;
+        if (nearbyCount == 0)
+        {
+            rightPanel.getChildren().add(line(rightLines, lineCount++, "None nearby", Color.GRAY, null, null));
+        }
+
+        for (int i = 0; i < nearbyCount; i++)
+        {
+            int distance = snapshot.getDistance(i);
+            Color textColor = distance <= 10 ? Color.GREEN :
+                    distance <= NEARBY_RADIUS ? Color.YELLOW : Color.WHITE;
+
+            // Null until the spawn data has loaded, which leaves the right side empty
+            String areaName = MobSpawnData.getAreaName(snapshot.getPosition(i));
+            rightPanel.getChildren().add(line(rightLines, lineCount++, distance + " tiles away", textColor, areaName, Color.GRAY));
+        }
+
+        // The panel is rebuilt every tick, so the countdowns tick down with it
+        int respawnCount = Math.min(snapshot.getRespawnCount(), MAX_RESPAWN_LINES);
+        for (int i = 0; i < respawnCount; i++)
+        {
+            int ticks = snapshot.getRespawnCountdown(i);
+            String text = ticks > 0 ? "Respawn " + (ticks * 600 + 999) / 1000 + "s" : "Respawn due";
+            rightPanel.getChildren().add(line(rightLines, lineCount++, text, RESPAWN_COLOR, null, null));
+        }
     }
 
-    private void renderPanelWithTransparentBackground(Graphics2D graphics, PanelComponent panel, int xOffset, int yOffset)
+    /**
+     * Returns the pooled line at {@code index}, creating it if the pool is too small, set to the given text.
+     */
+    private static LineComponent line(List<LineComponent> pool, int index, String left, Color leftColor, String right, Color rightColor)
     {
-        graphics.translate(xOffset, yOffset);
+        while (pool.size() <= index)
+        {
+            pool.add(LineComponent.builder().build());
+        }
 
-        // Render panel to get its size
-        Dimension panelSize = panel.render(graphics);
+        LineComponent line = pool.get(index);
+        line.setLeft(left);
+        line.setLeftColor(leftColor);
+        line.setRight(right);
+        line.setRightColor(rightColor != null ? rightColor : Color.WHITE);
+        return line;
+    }
 
-        // Reset position to draw background behind
-        graphics.translate(-xOffset, -yOffset);
+    /**
+     * Draws the background, then the panel on top. The background is sized from the
+     * panel's last rendered size, so the panel is only rendered twice (once to measure)
+     * on the frame after its contents change.
+     * <p>
+     * The background is blitted from an image re-rendered only when the panel's size or
+     * the color changes; filling a translucent rectangle instead makes Java2D allocate
+     * mask buffers on every frame.
+     *
+     * @return the background image to pass in on the next frame
+     */
+    private BufferedImage renderPanelWithTransparentBackground(Graphics2D graphics, PanelComponent panel, Dimension panelSize,
+                                                               BufferedImage backgroundImage, boolean resized, int xOffset, int yOffset)
+    {
+        graphics.translate(xOffset, yOffset);
+
+        if (resized)
+        {
+            // Render panel to get its size
+            panelSize.setSize(panel.render(graphics));
+        }
 
         // Draw transparent background
-        Color bgColor = config.backgroundColor();
-        graphics.setColor(new Color(bgColor.getRed(), bgColor.getGreen(), bgColor.getBlue(), 100));
-        graphics.fillRect(xOffset, yOffset, panelSize.width, panelSize.height);
+        if (panelSize.width > 0 && panelSize.height > 0)
+        {
+            if (backgroundImage == null || backgroundImage.getWidth() != panelSize.width || backgroundImage.getHeight() != panelSize.height)
+            {
+                backgroundImage = new BufferedImage(panelSize.width, panelSize.height, BufferedImage.TYPE_INT_ARGB);
+                Graphics2D g = backgroundImage.createGraphics();
+                g.setColor(background);
+                g.fillRect(0, 0, panelSize.width, panelSize.height);
+                g.dispose();
+            }
+            graphics.drawImage(backgroundImage, 0, 0, null);
+        }
 
         // Render panel content on top
-        graphics.translate(xOffset, yOffset);
         panel.render(graphics);
         graphics.translate(-xOffset, -yOffset);
+        return backgroundImage;
     }
 
-    private void renderMobHighlights(Graphics2D graphics)
+    private void renderMobHighlights(Graphics2D graphics, TrackingSnapshot snapshot)
     {
-        String searchedMob = config.searchedMob().trim().toLowerCase();
-        if (searchedMob.isEmpty())
+        Color hullColor = config.hullColor();
+        if (hullColor != hullColorSource)
         {
-            return;
+            hullColorSource = hullColor;
+            hullBorderColor = new Color(hullColor.getRed(), hullColor.getGreen(), hullColor.getBlue(), 180);
+            hullFillColor = new Color(hullColor.getRed(), hullColor.getGreen(), hullColor.getBlue(), 50);
         }
 
-        Color hullColor = config.hullColor();
         int canvasWidth = client.getCanvasWidth();
         int canvasHeight = client.getCanvasHeight();
 
@@ -196,21 +323,19 @@ public class MobsLocatorOverlay extends Overlay
         int topMargin = (int)(canvasHeight * 0.05);
         int bottomMargin = (int)(canvasHeight * 0.72);
 
-        for (NPC npc : plugin.getSearchedMobs())
-        {
-            if (npc == null)
-            {
-                continue;
-            }
-
-            java.awt.Shape hull = npc.getConvexHull();
+        hullCache.beginFrame(client);
+        graphics.setStroke(HULL_STROKE);
 
-            if (hull == null)
+        for (int i = 0; i < snapshot.size(); i++)
+        {
+            NPC npc = snapshot.getNpc(i);
+            HullCache.Entry cached = hullCache.get(npc);
+            if (cached.hull == null)
             {
                 continue;
             }
 
-            java.awt.Rectangle bounds = hull.getBounds();
+            java.awt.Rectangle bounds = cached.bounds;
 
             if (bounds.x < leftMargin ||
                     bounds.x + bounds.width > rightMargin ||
@@ -220,12 +345,11 @@ public class MobsLocatorOverlay extends Overlay
                 continue;
             }
 
-            graphics.setColor(new Color(hullColor.getRed(), hullColor.getGreen(), hullColor.getBlue(), 180));
-            graphics.setStroke(new java.awt.BasicStroke(2));
-            graphics.draw(hull);
+            graphics.setColor(hullBorderColor);
+            graphics.draw(cached.hull);
 
-            graphics.setColor(new Color(hullColor.getRed(), hullColor.getGreen(), hullColor.getBlue(), 50));
-            graphics.fill(hull);
+            graphics.setColor(hullFillColor);
+            graphics.fill(cached.hull);
         }
     }
 }
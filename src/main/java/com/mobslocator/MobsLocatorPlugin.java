@@ -5,17 +5,24 @@ import javax.inject.Inject;
 import net.runelite.api.Client;
 import net.runelite.api.GameState;
 import net.runelite.api.NPC;
+import net.runelite.api.NPCComposition;
+import net.runelite.api.Player;
 import net.runelite.api.coords.WorldPoint;
 import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.NpcChanged;
 import net.runelite.api.events.NpcSpawned;
 import net.runelite.api.events.NpcDespawned;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.events.ConfigChanged;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
 import net.runelite.client.ui.overlay.OverlayManager;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 @PluginDescriptor(
         name = "Mobs Locator",
@@ -24,6 +31,15 @@ import java.util.stream.Collectors;
 )
 public class MobsLocatorPlugin extends Plugin
 {
+    // How often observed spawns are written out, batched
+    private static final int SPAWN_FLUSH_SECONDS = 30;
+    // Every NPC in a newly loaded scene spawns during its first ticks; those aren't recorded
+    private static final int SCENE_LOAD_TICKS = 2;
+    // NPCs are sent within 15 tiles of the player, so spawns this far out are mostly NPCs coming into view
+    private static final int VIEW_EDGE_DISTANCE = 14;
+    // How close respawns have to be to the player to be counted down in the nearby panel
+    private static final int RESPAWN_RANGE = 32;
+
     @Inject
     private Client client;
 
@@ -45,11 +61,23 @@ public class MobsLocatorPlugin extends Plugin
      @Inject
         private com.google.gson.Gson gson;
 
+    @Inject
+    private ScheduledExecutorService executor;
+
         
-    private final Set<NPC> trackedNPCs = new HashSet<>();
-    private final Map<String, List<NPC>> mobsByName = new HashMap<>();
-    private final Map<String, Map<WorldPoint, Integer>> mobLocationCounts = new HashMap<>();
-    private String lastSearchedMob = "";
+    private final TrackedNpcs trackedNPCs = new TrackedNpcs();
+    // Packed position each tracked NPC was last counted at, bucketed by distance to the player
+    private final NpcDistanceIndex trackedPositions = new NpcDistanceIndex();
+    private final SearchSession searchSession = new SearchSession();
+    private final NpcMatchCache matchCache = new NpcMatchCache();
+    // What the overlays read, replaced wholesale once per game tick
+    private volatile TrackingSnapshot snapshot = TrackingSnapshot.EMPTY;
+    // Set when the search changes, the NPCs in the scene are rescanned on the next game tick
+    private volatile boolean rescanPending;
+    private final SpawnRecorder spawnRecorder = new SpawnRecorder();
+    private ScheduledFuture<?> spawnRecorderFlush;
+    private final RespawnTimers respawnTimers = new RespawnTimers();
+    private int ticksSinceSceneLoad;
 
     @Override
     protected void startUp() throws Exception
@@ -57,6 +85,19 @@ public class MobsLocatorPlugin extends Plugin
         overlayManager.add(overlay);
         overlayManager.add(minimapOverlay);
         overlayManager.add(worldMapOverlay);
+
+        searchSession.update(config.searchedMob());
+        rescanPending = true;
+
+        // Loading the spawn data takes a while, keep it off the client and render threads
+        executor.submit(() ->
+        {
+            MobSpawnData.initialize(gson, spawnRecorder.compact(), SpawnLocationCache.CACHE_FILE);
+            searchSession.resolve();
+            MobSpawnData.saveCache();
+        });
+        spawnRecorderFlush = executor.scheduleWithFixedDelay(spawnRecorder::flush,
+            SPAWN_FLUSH_SECONDS, SPAWN_FLUSH_SECONDS, TimeUnit.SECONDS);
     }
 
     @Override
@@ -65,190 +106,293 @@ public class MobsLocatorPlugin extends Plugin
         overlayManager.remove(overlay);
         overlayManager.remove(minimapOverlay);
         overlayManager.remove(worldMapOverlay);
+        spawnRecorderFlush.cancel(false);
+        executor.submit(spawnRecorder::flush);
         trackedNPCs.clear();
-        mobsByName.clear();
-        mobLocationCounts.clear();
+        trackedPositions.clear();
+        searchSession.clear();
+        matchCache.clear();
+        respawnTimers.clear();
+        overlay.clearHullCache();
+        snapshot = TrackingSnapshot.EMPTY;
     }
 
     @Subscribe
-    public void onGameStateChanged(GameStateChanged gameStateChanged)
+    public void onConfigChanged(ConfigChanged configChanged)
     {
-        if (gameStateChanged.getGameState() == GameState.LOGGED_IN)
+        if (configChanged.getGroup().equals("mobslocator") && configChanged.getKey().equals("searchedMob"))
         {
-            trackedNPCs.clear();
-            mobsByName.clear();
-            mobLocationCounts.clear();
+            // Config changes arrive on the Swing thread, so only a placeholder is published here and
+            // clustering runs on the executor; the overlays show the search as loading meanwhile
+            if (searchSession.update(config.searchedMob()))
+            {
+                executor.submit(() ->
+                {
+                    searchSession.resolve();
+                    // Keep any mobs the search had to cluster for the next launch
+                    MobSpawnData.saveCache();
+                });
+            }
+            rescanPending = true;
         }
     }
 
     @Subscribe
-    public void onNpcSpawned(NpcSpawned npcSpawned)
+    public void onGameTick(GameTick gameTick)
     {
-        NPC npc = npcSpawned.getNpc();
-        if (npc != null && shouldTrackNPC(npc))
+        if (ticksSinceSceneLoad < SCENE_LOAD_TICKS)
         {
-            trackedNPCs.add(npc);
-            updateMobMaps(npc, true);
+            ticksSinceSceneLoad++;
         }
+
+        if (rescanPending)
+        {
+            rescanPending = false;
+            rescanNPCs();
+        }
+
+        // Rebucket before moving NPCs, so a tick where the player moved doesn't move NPCs twice
+        Player player = client.getLocalPlayer();
+        WorldPoint playerLocation = player != null ? player.getWorldLocation() : null;
+        trackedPositions.setOrigin(playerLocation);
+        updateTrackedPositions();
+
+        // NPCs only move on ticks, so distances and the nearest list stay current for every frame until the next one
+        snapshot = TrackingSnapshot.capture(trackedNPCs, trackedPositions, playerLocation,
+            respawnTimers.getCountdowns(playerLocation, client.getTickCount(), RESPAWN_RANGE));
     }
 
     @Subscribe
-    public void onNpcDespawned(NpcDespawned npcDespawned)
+    public void onGameStateChanged(GameStateChanged gameStateChanged)
     {
-        NPC npc = npcDespawned.getNpc();
-        if (trackedNPCs.remove(npc))
+        if (gameStateChanged.getGameState() == GameState.LOGGED_IN)
         {
-            updateMobMaps(npc, false);
+            ticksSinceSceneLoad = 0;
+            trackedNPCs.clear();
+            trackedPositions.clear();
+            respawnTimers.clearPending();
+            overlay.clearHullCache();
+            snapshot = TrackingSnapshot.EMPTY;
         }
     }
 
-    private void updateMobMaps(NPC npc, boolean add)
+    @Subscribe
+    public void onNpcSpawned(NpcSpawned npcSpawned)
     {
-        String mobName = npc.getName();
-        if (mobName == null) return;
+        NPC npc = npcSpawned.getNpc();
+        if (npc == null)
+        {
+            return;
+        }
 
-        // Update mobsByName map
-        if (add)
+        if (config.recordSpawns())
         {
-            mobsByName.computeIfAbsent(mobName, k -> new ArrayList<>()).add(npc);
+            recordSpawn(npc);
         }
-        else
+        if (shouldTrackNPC(npc) && track(npc))
         {
-            List<NPC> npcs = mobsByName.get(mobName);
-            if (npcs != null)
+            WorldPoint location = npc.getWorldLocation();
+            if (location != null)
             {
-                npcs.remove(npc);
-                if (npcs.isEmpty())
-                {
-                    mobsByName.remove(mobName);
-                }
+                respawnTimers.onSpawn(npc.getIndex(), npc.getId(), location, client.getTickCount());
             }
         }
+    }
 
-        // Update location counts
+    private void recordSpawn(NPC npc)
+    {
+        // Instances reuse coordinates far from where their NPCs live in the world, and the NPCs
+        // spawning right after a scene load were already there
+        if (client.isInInstancedRegion() || ticksSinceSceneLoad < SCENE_LOAD_TICKS)
+        {
+            return;
+        }
+
+        String name = npc.getName();
         WorldPoint location = npc.getWorldLocation();
-        if (location != null)
+        Player player = client.getLocalPlayer();
+        // The client names hidden helper NPCs "null"
+        if (name == null || name.equals("null") || location == null || player == null)
         {
-            Map<WorldPoint, Integer> locationCounts = mobLocationCounts.computeIfAbsent(mobName, k -> new HashMap<>());
+            return;
+        }
 
-            if (add)
+        // NPCs walking into view, or coming into view as the player walks, spawn at the edge of it
+        WorldPoint playerLocation = player.getWorldLocation();
+        if (playerLocation == null || location.getPlane() != playerLocation.getPlane()
+            || Math.max(Math.abs(location.getX() - playerLocation.getX()), Math.abs(location.getY() - playerLocation.getY())) >= VIEW_EDGE_DISTANCE)
+        {
+            return;
+        }
+        spawnRecorder.record(npc.getId(), name, location, client.getTickCount());
+    }
+
+    @Subscribe
+    public void onNpcDespawned(NpcDespawned npcDespawned)
+    {
+        NPC npc = npcDespawned.getNpc();
+        if (trackedNPCs.remove(npc))
+        {
+            updateMobMaps(npc, false);
+
+            WorldPoint location = npc.getWorldLocation();
+            if (npc.isDead() && location != null)
             {
-                locationCounts.put(location, locationCounts.getOrDefault(location, 0) + 1);
+                respawnTimers.onDeath(npc.getIndex(), npc.getId(), location, client.getTickCount());
             }
             else
             {
-                int count = locationCounts.getOrDefault(location, 0);
-                if (count <= 1)
-                {
-                    locationCounts.remove(location);
-                }
-                else
-                {
-                    locationCounts.put(location, count - 1);
-                }
-            }
-
-            if (locationCounts.isEmpty())
-            {
-                mobLocationCounts.remove(mobName);
+                respawnTimers.onDespawn(npc.getIndex());
             }
         }
     }
 
-    private boolean shouldTrackNPC(NPC npc)
+    @Subscribe
+    public void onNpcChanged(NpcChanged npcChanged)
     {
-        if (npc.getName() == null)
+        NPC npc = npcChanged.getNpc();
+        NPCComposition old = npcChanged.getOld();
+
+        // The NPC transformed into another composition, which may go by another name
+        matchCache.invalidate(npc.getId());
+        if (old != null)
         {
-            return false;
+            matchCache.invalidate(old.getId());
         }
 
-        // Always track searched mob
-        String searchedMob = config.searchedMob().trim().toLowerCase();
-        if (!searchedMob.isEmpty() && npc.getName().toLowerCase().contains(searchedMob))
+        boolean tracked = trackedNPCs.contains(npc);
+        if (tracked == shouldTrackNPC(npc))
         {
-            return true;
+            return;
         }
 
-        // Don't track other mobs unless searching
-        return false;
+        // Tracked NPCs are keyed by index rather than name, so removal works after a rename.
+        // Like a rescan, a transform neither spawns nor kills the NPC, so the respawn timers only
+        // forget it or start following it from here
+        if (tracked)
+        {
+            trackedNPCs.remove(npc);
+            updateMobMaps(npc, false);
+            respawnTimers.onDespawn(npc.getIndex());
+        }
+        else if (track(npc))
+        {
+            WorldPoint location = npc.getWorldLocation();
+            if (location != null)
+            {
+                respawnTimers.onSeen(npc.getIndex(), location);
+            }
+        }
     }
 
-    public Set<NPC> getTrackedNPCs()
+    /**
+     * Starts tracking the NPC and counts its tile. The client can reuse an NPC index
+     * before the old NPC's despawn arrives, and that despawn is ignored once the old
+     * NPC is no longer tracked, so whatever is still tracked under the index is
+     * untracked and uncounted first.
+     *
+     * @return false if the NPC was already tracked or can't be
+     */
+    private boolean track(NPC npc)
     {
-        return trackedNPCs;
+        NPC stale = trackedNPCs.getByIndex(npc.getIndex());
+        if (stale != null && stale != npc)
+        {
+            trackedNPCs.remove(stale);
+            updateMobMaps(stale, false);
+            respawnTimers.onDespawn(stale.getIndex());
+        }
+
+        if (!trackedNPCs.add(npc))
+        {
+            return false;
+        }
+        updateMobMaps(npc, true);
+        return true;
     }
 
-    public List<String> getAvailableMobNames()
+    private void updateMobMaps(NPC npc, boolean add)
     {
-        return trackedNPCs.stream()
-                .map(NPC::getName)
-                .filter(Objects::nonNull)
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+        // Update tracked positions
+        if (add)
+        {
+            WorldPoint location = npc.getWorldLocation();
+            if (location != null)
+            {
+                trackedPositions.put(npc.getIndex(), PackedCoords.pack(location));
+            }
+        }
+        else
+        {
+            trackedPositions.remove(npc.getIndex());
+        }
     }
 
-    public List<NPC> getSearchedMobs()
+    /**
+     * Moves the distance bucket of every tracked NPC that changed tile since the last tick.
+     */
+    private void updateTrackedPositions()
     {
-        String searchedMob = config.searchedMob().trim().toLowerCase();
-        if (searchedMob.isEmpty())
+        for (int i = 0; i < trackedNPCs.size(); i++)
         {
-            return Collections.emptyList();
+            NPC npc = trackedNPCs.get(i);
+            WorldPoint location = npc.getWorldLocation();
+            if (location == null)
+            {
+                continue;
+            }
+
+            // Only rebuckets NPCs whose tile changed
+            trackedPositions.put(npc.getIndex(), PackedCoords.pack(location));
         }
+    }
 
-        return trackedNPCs.stream()
-                .filter(npc -> npc.getName() != null &&
-                        npc.getName().toLowerCase().contains(searchedMob))
-                .collect(Collectors.toList());
+    private boolean shouldTrackNPC(NPC npc)
+    {
+        // Don't track other mobs unless searching; the cache sees the new query as soon as the search changes
+        return matchCache.matches(npc, getSearch().getQuery());
     }
 
-    public Map<WorldPoint, Integer> getSearchedMobLocations()
+    SearchSession.Result getSearch()
     {
-        String searchedMob = config.searchedMob().trim().toLowerCase();
-        if (searchedMob.isEmpty())
-        {
-            return Collections.emptyMap();
-        }
+        return searchSession.getCurrent();
+    }
 
-        Map<WorldPoint, Integer> allLocations = new HashMap<>();
+    /**
+     * The tracking state as of the last game tick. Safe to call from any thread.
+     */
+    TrackingSnapshot getSnapshot()
+    {
+        return snapshot;
+    }
 
-        for (Map.Entry<String, Map<WorldPoint, Integer>> entry : mobLocationCounts.entrySet())
+    private void rescanNPCs()
+    {
+        // NPCs the new search drops leave tracking without a despawn event, so the respawn timers forget them here
+        for (int i = 0; i < trackedNPCs.size(); i++)
         {
-            if (entry.getKey().toLowerCase().contains(searchedMob))
+            NPC npc = trackedNPCs.get(i);
+            if (!shouldTrackNPC(npc))
             {
-                for (Map.Entry<WorldPoint, Integer> locationEntry : entry.getValue().entrySet())
-                {
-                    allLocations.merge(locationEntry.getKey(), locationEntry.getValue(), Integer::sum);
-                }
+                respawnTimers.onDespawn(npc.getIndex());
             }
         }
 
-        return allLocations;
-    }
+        trackedNPCs.clear();
+        trackedPositions.clear();
 
-    public boolean hasSearchTermChanged()
-    {
-        String currentSearch = config.searchedMob().trim().toLowerCase();
-        if (!currentSearch.equals(lastSearchedMob))
+        for (NPC npc : client.getNpcs())
         {
-            lastSearchedMob = currentSearch;
-            // Clear and re-scan NPCs when search term changes
-            trackedNPCs.clear();
-            mobsByName.clear();
-            mobLocationCounts.clear();
-
-            // Re-scan all visible NPCs
-            for (NPC npc : client.getNpcs())
+            if (npc != null && shouldTrackNPC(npc) && track(npc))
             {
-                if (npc != null && shouldTrackNPC(npc))
+                // Already in the scene, so this isn't a spawn, but its death can still be timed from here
+                WorldPoint location = npc.getWorldLocation();
+                if (location != null)
                 {
-                    trackedNPCs.add(npc);
-                    updateMobMaps(npc, true);
+                    respawnTimers.onSeen(npc.getIndex(), location);
                 }
             }
-            return true;
         }
-        return false;
     }
 
     @Provides
@@ -256,9 +400,4 @@ public class MobsLocatorPlugin extends Plugin
     {
         return configManager.getConfig(MobsLocatorConfig.class);
     }
-
-    public com.google.gson.Gson getGson()
-    {
-        return gson;
-    }
 }
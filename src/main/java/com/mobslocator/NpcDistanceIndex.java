@@ -0,0 +1,226 @@
+package com.mobslocator;
+
+import java.util.Arrays;
+import net.runelite.api.coords.WorldPoint;
+
+/**
+ * The tile each tracked NPC was last seen on, bucketed by Chebyshev tile distance
+ * to the player, so the nearest NPCs and the NPCs within a radius are read off the
+ * first buckets without sorting anything.
+ * <p>
+ * Each bucket is an intrusive doubly linked list threaded through arrays indexed by
+ * the client's NPC index, so moving an NPC to another bucket is O(1) and allocates
+ * nothing. Only NPCs whose tile changed are moved on a game tick; all of them are
+ * rebucketed only when the player's own tile changes, since that shifts every
+ * distance. Distances of {@link #MAX_DISTANCE} and beyond share one unordered
+ * bucket. NPCs on another plane than the player, or every NPC while the player's
+ * location is unknown, are {@link TrackingSnapshot#UNREACHABLE} and come last.
+ * <p>
+ * Like {@link TrackedNpcs}, this is only meant to be used from the client thread.
+ */
+final class NpcDistanceIndex
+{
+    // Wider than an extended scene, so every reachable NPC is in practice kept in order
+    static final int MAX_DISTANCE = 256;
+    private static final int UNREACHABLE_BUCKET = MAX_DISTANCE + 1;
+    private static final int NONE = -1;
+
+    private final int[] heads = new int[UNREACHABLE_BUCKET + 1];
+    private final int[] next = new int[TrackedNpcs.MAX_NPCS];
+    private final int[] prev = new int[TrackedNpcs.MAX_NPCS];
+    private final int[] positions = new int[TrackedNpcs.MAX_NPCS];
+    // Distance each NPC index was bucketed at, or NONE if it isn't in the index
+    private final int[] distances = new int[TrackedNpcs.MAX_NPCS];
+    private int size;
+
+    // Packed player tile, valid while hasOrigin
+    private int origin;
+    private boolean hasOrigin;
+    // Members collected while rebucketing, reused between ticks
+    private int[] scratch = new int[64];
+
+    NpcDistanceIndex()
+    {
+        Arrays.fill(heads, NONE);
+        Arrays.fill(distances, NONE);
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    boolean contains(int npcIndex)
+    {
+        return distances[npcIndex] != NONE;
+    }
+
+    /**
+     * Packed world position (see {@link PackedCoords}) of an NPC in the index.
+     */
+    int getPosition(int npcIndex)
+    {
+        return positions[npcIndex];
+    }
+
+    /**
+     * Distance of an NPC in the index to the player, or {@link TrackingSnapshot#UNREACHABLE}.
+     */
+    int getDistance(int npcIndex)
+    {
+        return distances[npcIndex];
+    }
+
+    /**
+     * Adds the NPC at a packed position, or moves it there if it is already in the index.
+     */
+    void put(int npcIndex, int position)
+    {
+        if (contains(npcIndex))
+        {
+            if (positions[npcIndex] == position)
+            {
+                return;
+            }
+            unlink(npcIndex);
+        }
+        else
+        {
+            size++;
+        }
+        positions[npcIndex] = position;
+        link(npcIndex, distanceTo(position));
+    }
+
+    void remove(int npcIndex)
+    {
+        if (!contains(npcIndex))
+        {
+            return;
+        }
+        unlink(npcIndex);
+        distances[npcIndex] = NONE;
+        size--;
+    }
+
+    void clear()
+    {
+        for (int bucket = 0; bucket < heads.length; bucket++)
+        {
+            for (int npcIndex = heads[bucket]; npcIndex != NONE; npcIndex = next[npcIndex])
+            {
+                distances[npcIndex] = NONE;
+            }
+            heads[bucket] = NONE;
+        }
+        size = 0;
+    }
+
+    /**
+     * Moves the point distances are measured from, rebucketing every NPC if the
+     * player changed tile.
+     *
+     * @param playerLocation the player's location, or null if unknown
+     */
+    void setOrigin(WorldPoint playerLocation)
+    {
+        boolean known = playerLocation != null;
+        int packed = known ? PackedCoords.pack(playerLocation) : 0;
+        if (known == hasOrigin && packed == origin)
+        {
+            return;
+        }
+        hasOrigin = known;
+        origin = packed;
+
+        if (scratch.length < size)
+        {
+            scratch = new int[Math.max(size, scratch.length * 2)];
+        }
+        int count = 0;
+        for (int npcIndex = first(); npcIndex != NONE; npcIndex = next(npcIndex))
+        {
+            scratch[count++] = npcIndex;
+        }
+        Arrays.fill(heads, NONE);
+        for (int i = 0; i < count; i++)
+        {
+            link(scratch[i], distanceTo(positions[scratch[i]]));
+        }
+    }
+
+    /**
+     * The NPC index of the nearest NPC, or -1 if the index is empty. Follow it with
+     * {@link #next(int)} to walk every NPC in order of distance.
+     */
+    int first()
+    {
+        return firstFrom(0);
+    }
+
+    /**
+     * The NPC index following the given one in order of distance, or -1 after the last.
+     */
+    int next(int npcIndex)
+    {
+        return next[npcIndex] != NONE ? next[npcIndex] : firstFrom(bucketOf(distances[npcIndex]) + 1);
+    }
+
+    private int firstFrom(int bucket)
+    {
+        for (; bucket < heads.length; bucket++)
+        {
+            if (heads[bucket] != NONE)
+            {
+                return heads[bucket];
+            }
+        }
+        return NONE;
+    }
+
+    private void link(int npcIndex, int distance)
+    {
+        int bucket = bucketOf(distance);
+        distances[npcIndex] = distance;
+        prev[npcIndex] = NONE;
+        next[npcIndex] = heads[bucket];
+        if (heads[bucket] != NONE)
+        {
+            prev[heads[bucket]] = npcIndex;
+        }
+        heads[bucket] = npcIndex;
+    }
+
+    private void unlink(int npcIndex)
+    {
+        int before = prev[npcIndex];
+        int after = next[npcIndex];
+        if (before != NONE)
+        {
+            next[before] = after;
+        }
+        else
+        {
+            heads[bucketOf(distances[npcIndex])] = after;
+        }
+        if (after != NONE)
+        {
+            prev[after] = before;
+        }
+    }
+
+    private int distanceTo(int position)
+    {
+        if (!hasOrigin || PackedCoords.plane(position) != PackedCoords.plane(origin))
+        {
+            return TrackingSnapshot.UNREACHABLE;
+        }
+        return Math.max(Math.abs(PackedCoords.x(position) - PackedCoords.x(origin)),
+            Math.abs(PackedCoords.y(position) - PackedCoords.y(origin)));
+    }
+
+    private static int bucketOf(int distance)
+    {
+        return distance == TrackingSnapshot.UNREACHABLE ? UNREACHABLE_BUCKET : Math.min(distance, MAX_DISTANCE);
+    }
+}
@@ -0,0 +1,72 @@
+package com.mobslocator;
+
+import com.mobslocator.collections.IntHashSet;
+import net.runelite.api.NPC;
+
+/**
+ * Remembers which NPC composition ids match the current search, so deciding
+ * whether to track an NPC is an int set lookup instead of matching its name.
+ * <p>
+ * Every NPC with the same composition id has the same name, so each id is only
+ * matched once per search. The cache starts over whenever the search changes,
+ * and single ids can be dropped when an NPC transforms into another composition.
+ */
+class NpcMatchCache
+{
+    private final IntHashSet matching = new IntHashSet();
+    private final IntHashSet notMatching = new IntHashSet();
+    private MobQuery query = MobQuery.EMPTY;
+
+    /**
+     * Whether the NPC matches {@code query}, which is usually the same instance as on
+     * the previous call; a different one clears everything cached for the old one.
+     */
+    boolean matches(NPC npc, MobQuery query)
+    {
+        if (query != this.query)
+        {
+            this.query = query;
+            clear();
+        }
+        if (query.isEmpty())
+        {
+            return false;
+        }
+
+        int id = npc.getId();
+        if (matching.contains(id))
+        {
+            return true;
+        }
+        if (notMatching.contains(id))
+        {
+            return false;
+        }
+
+        String name = npc.getName();
+        if (name == null)
+        {
+            // Not cached, the name may still be filled in later
+            return false;
+        }
+
+        boolean matches = query.matches(name);
+        (matches ? matching : notMatching).add(id);
+        return matches;
+    }
+
+    /**
+     * Forgets the verdict for one composition id.
+     */
+    void invalidate(int id)
+    {
+        matching.remove(id);
+        notMatching.remove(id);
+    }
+
+    void clear()
+    {
+        matching.clear();
+        notMatching.clear();
+    }
+}
@@ -0,0 +1,45 @@
+package com.mobslocator;
+
+import net.runelite.api.coords.WorldPoint;
+
+/**
+ * Packs a world coordinate into a single int: 15 bits of x, 15 bits of y and
+ * 2 bits of plane. This is the layout {@link SpawnIndexWriter} writes the spawn
+ * index in.
+ */
+final class PackedCoords
+{
+    private PackedCoords()
+    {
+    }
+
+    static int pack(int x, int y, int plane)
+    {
+        return (x & 0x7FFF) | ((y & 0x7FFF) << 15) | ((plane & 0x3) << 30);
+    }
+
+    static int pack(WorldPoint point)
+    {
+        return pack(point.getX(), point.getY(), point.getPlane());
+    }
+
+    static int x(int packed)
+    {
+        return packed & 0x7FFF;
+    }
+
+    static int y(int packed)
+    {
+        return (packed >>> 15) & 0x7FFF;
+    }
+
+    static int plane(int packed)
+    {
+        return packed >>> 30;
+    }
+
+    static WorldPoint toWorldPoint(int packed)
+    {
+        return new WorldPoint(x(packed), y(packed), plane(packed));
+    }
+}
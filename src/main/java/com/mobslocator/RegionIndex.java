@@ -0,0 +1,292 @@
+package com.mobslocator;
+
+import com.mobslocator.collections.IntIntHashMap;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Static lookup structure over the named regions from regions.json and
+ * surface_areas.json, built once when the spawn data loads.
+ * <p>
+ * Region bounds are bucketed into a grid of 64x64-tile cells, so finding the
+ * smallest region containing a point only checks the few regions overlapping
+ * that cell. The centers of the surface areas are bucketed the same way for the
+ * nearest-surface-area search. Each cell's ordinals are stored back to back in
+ * one flat array and found through a primitive map, so lookups don't box. Whether
+ * a region is a dungeon, cave or underground area is decided once here instead of
+ * on every lookup.
+ */
+class RegionIndex
+{
+    static final String SURFACE = "Gielinor Surface";
+
+    private static final int CELL_SHIFT = 6;
+    private static final int CELL_SIZE = 1 << CELL_SHIFT;
+
+    // Smallest area first, so the first containing region is the most specific one
+    private final Region[] regions;
+    // Region ordinals overlapping each cell, in area order
+    private final CellLists boundsCells;
+    // Ordinals of the surface areas whose center lies in each cell
+    private final CellLists centerCells;
+    private int minCenterCellX;
+    private int minCenterCellY;
+    private int maxCenterCellX;
+    private int maxCenterCellY;
+
+    RegionIndex(List<Region> regionList)
+    {
+        List<Region> sorted = new ArrayList<>(regionList);
+        // Stable, so equal-sized regions keep their file order
+        sorted.sort((a, b) -> Integer.compare(a.getArea(), b.getArea()));
+        regions = sorted.toArray(new Region[0]);
+
+        // Count each cell's ordinals first, so the flat arrays can be sized before filling them
+        IntIntHashMap boundsCounts = new IntIntHashMap();
+        IntIntHashMap centerCounts = new IntIntHashMap();
+        boolean anyCenter = false;
+        for (Region region : regions)
+        {
+            for (int cellX = region.minX >> CELL_SHIFT; cellX <= region.maxX >> CELL_SHIFT; cellX++)
+            {
+                for (int cellY = region.minY >> CELL_SHIFT; cellY <= region.maxY >> CELL_SHIFT; cellY++)
+                {
+                    boundsCounts.addTo(cellKey(cellX, cellY), 1);
+                }
+            }
+
+            if (region.surfaceArea)
+            {
+                int cellX = region.centerX >> CELL_SHIFT;
+                int cellY = region.centerY >> CELL_SHIFT;
+                centerCounts.addTo(cellKey(cellX, cellY), 1);
+                if (!anyCenter)
+                {
+                    minCenterCellX = maxCenterCellX = cellX;
+                    minCenterCellY = maxCenterCellY = cellY;
+                    anyCenter = true;
+                }
+                minCenterCellX = Math.min(minCenterCellX, cellX);
+                minCenterCellY = Math.min(minCenterCellY, cellY);
+                maxCenterCellX = Math.max(maxCenterCellX, cellX);
+                maxCenterCellY = Math.max(maxCenterCellY, cellY);
+            }
+        }
+
+        boundsCells = new CellLists(boundsCounts);
+        centerCells = new CellLists(centerCounts);
+        for (int ordinal = 0; ordinal < regions.length; ordinal++)
+        {
+            Region region = regions[ordinal];
+            for (int cellX = region.minX >> CELL_SHIFT; cellX <= region.maxX >> CELL_SHIFT; cellX++)
+            {
+                for (int cellY = region.minY >> CELL_SHIFT; cellY <= region.maxY >> CELL_SHIFT; cellY++)
+                {
+                    boundsCells.add(cellKey(cellX, cellY), ordinal);
+                }
+            }
+
+            if (region.surfaceArea)
+            {
+                centerCells.add(cellKey(region.centerX >> CELL_SHIFT, region.centerY >> CELL_SHIFT), ordinal);
+            }
+        }
+    }
+
+    int size()
+    {
+        return regions.length;
+    }
+
+    /**
+     * Name of the most specific region containing the point. Points on the open
+     * surface are named after the nearest surface area instead.
+     */
+    String getAreaName(int x, int y, int plane)
+    {
+        Region region = findContaining(x, y);
+        if (region == null)
+        {
+            return String.format("Unknown Area (%d, %d)", x, y);
+        }
+        if (region.name.equals(SURFACE))
+        {
+            Region nearest = findNearestSurfaceArea(x, y, plane);
+            return nearest != null ? nearest.name : SURFACE;
+        }
+        return region.name;
+    }
+
+    /**
+     * Smallest region whose bounds contain the point. Bounds are 2D, so the plane is ignored.
+     */
+    Region findContaining(int x, int y)
+    {
+        int offset = boundsCells.find(cellKey(x >> CELL_SHIFT, y >> CELL_SHIFT));
+        for (int i = 0; offset >= 0 && i < boundsCells.count(offset); i++)
+        {
+            Region region = regions[boundsCells.get(offset, i)];
+            if (region.contains(x, y))
+            {
+                return region;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Surface area whose center is nearest (Chebyshev) to the point, preferring the
+     * smaller area on ties. Region centers are on plane 0, so points on other planes
+     * have no nearest surface area.
+     */
+    Region findNearestSurfaceArea(int x, int y, int plane)
+    {
+        if (plane != 0 || centerCells.isEmpty())
+        {
+            return null;
+        }
+
+        int centerX = x >> CELL_SHIFT;
+        int centerY = y >> CELL_SHIFT;
+        int maxRing = Math.max(
+            Math.max(Math.abs(centerX - minCenterCellX), Math.abs(maxCenterCellX - centerX)),
+            Math.max(Math.abs(centerY - minCenterCellY), Math.abs(maxCenterCellY - centerY)));
+
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int ring = 0; ring <= maxRing; ring++)
+        {
+            // Centers in this ring or beyond are at least this far away; equal distances
+            // still have to be visited since a smaller region there wins the tie
+            int ringMinDistance = ring == 0 ? 0 : (ring - 1) * CELL_SIZE + 1;
+            if (ringMinDistance > bestDistance)
+            {
+                break;
+            }
+
+            for (int cellX = centerX - ring; cellX <= centerX + ring; cellX++)
+            {
+                boolean edgeColumn = cellX == centerX - ring || cellX == centerX + ring;
+                int step = edgeColumn ? 1 : Math.max(1, ring * 2);
+                for (int cellY = centerY - ring; cellY <= centerY + ring; cellY += step)
+                {
+                    int offset = centerCells.find(cellKey(cellX, cellY));
+                    for (int i = 0; offset >= 0 && i < centerCells.count(offset); i++)
+                    {
+                        int ordinal = centerCells.get(offset, i);
+                        int distance = regions[ordinal].distanceToCenter(x, y);
+                        if (distance < bestDistance || (distance == bestDistance && ordinal < best))
+                        {
+                            best = ordinal;
+                            bestDistance = distance;
+                        }
+                    }
+                }
+            }
+        }
+        return best >= 0 ? regions[best] : null;
+    }
+
+    private static int cellKey(int cellX, int cellY)
+    {
+        return (cellX << 16) | (cellY & 0xFFFF);
+    }
+
+    /**
+     * Region ordinals per cell. Each cell's list is its length followed by its
+     * ordinals, stored back to back, and found by the offset of that length.
+     */
+    private static final class CellLists
+    {
+        private final IntIntHashMap offsets;
+        private final int[] lists;
+
+        /**
+         * Lays out empty lists with room for the given number of ordinals per cell key.
+         * Fill them with {@link #add}.
+         */
+        CellLists(IntIntHashMap counts)
+        {
+            offsets = new IntIntHashMap(counts.size());
+            int[] length = new int[1];
+            counts.forEach((cell, count) ->
+            {
+                offsets.put(cell, length[0]);
+                length[0] += count + 1;
+            });
+            lists = new int[length[0]];
+        }
+
+        void add(int cell, int ordinal)
+        {
+            int offset = offsets.get(cell, -1);
+            lists[offset + 1 + lists[offset]++] = ordinal;
+        }
+
+        boolean isEmpty()
+        {
+            return offsets.isEmpty();
+        }
+
+        /**
+         * Offset of the cell's list, or -1 if no region is in the cell.
+         */
+        int find(int cell)
+        {
+            return offsets.get(cell, -1);
+        }
+
+        int count(int offset)
+        {
+            return lists[offset];
+        }
+
+        int get(int offset, int i)
+        {
+            return lists[offset + 1 + i];
+        }
+    }
+
+    static class Region
+    {
+        final String name;
+        final int minX;
+        final int minY;
+        final int maxX;
+        final int maxY;
+        final int centerX;
+        final int centerY;
+        // Candidate for naming open-surface spawns: not the surface itself and not below ground
+        final boolean surfaceArea;
+
+        Region(String name, int minX, int minY, int maxX, int maxY)
+        {
+            this.name = name;
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.centerX = (minX + maxX) / 2;
+            this.centerY = (minY + maxY) / 2;
+            this.surfaceArea = !name.equals(SURFACE)
+                && !name.contains("Dungeon")
+                && !name.contains("Cave")
+                && !name.contains("Underground");
+        }
+
+        boolean contains(int x, int y)
+        {
+            return x >= minX && x <= maxX && y >= minY && y <= maxY;
+        }
+
+        int getArea()
+        {
+            return (maxX - minX) * (maxY - minY);
+        }
+
+        int distanceToCenter(int x, int y)
+        {
+            return Math.max(Math.abs(x - centerX), Math.abs(y - centerY));
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.mobslocator;
+
+import com.mobslocator.collections.IntIntHashMap;
+import com.mobslocator.collections.IntList;
+import java.util.Arrays;
+import net.runelite.api.coords.WorldPoint;
+
+/**
+ * Learns how long tracked mobs take to respawn, per spawn point, and predicts
+ * when the ones that died will be back.
+ * <p>
+ * A spawn point is an NPC composition id in a {@link #CELL_SIZE} tile cell, taken
+ * from where the NPC spawned, so a mob that wandered off before dying is still
+ * credited to its own point. Each death is queued on its point and paired with
+ * the next spawn there, oldest death first, and the interval between them feeds
+ * an exponentially weighted moving average. Intervals too long to be a respawn,
+ * e.g. because the player walked away in between, are ignored.
+ * <p>
+ * All state lives in fixed arrays of {@link #MAX_POINTS} points; when they are
+ * full, the point used least recently is evicted. Points are only looked up on
+ * spawns and deaths, so they are found by a linear scan. Only meant to be used
+ * from the client thread.
+ */
+final class RespawnTimers
+{
+    static final int MAX_POINTS = 256;
+    private static final int CELL_SIZE = 16;
+    // Deaths remembered per point, for mobs that spawn in groups
+    private static final int MAX_PENDING = 4;
+    // Ten minutes; anything longer wasn't watched from death to respawn
+    private static final int MAX_INTERVAL_TICKS = 1000;
+    private static final float EWMA_WEIGHT = 0.3f;
+
+    private final int[] npcIds = new int[MAX_POINTS];
+    private final int[] cells = new int[MAX_POINTS];
+    private final int[] lastUsed = new int[MAX_POINTS];
+    private final float[] intervals = new float[MAX_POINTS];
+    private final int[] samples = new int[MAX_POINTS];
+    private final int[] pendingDeaths = new int[MAX_POINTS * MAX_PENDING];
+    private final int[] pendingCounts = new int[MAX_POINTS];
+    private int pointCount;
+
+    // Packed tile each tracked NPC spawned on, keyed by NPC index
+    private final IntIntHashMap spawnTiles = new IntIntHashMap();
+
+    /**
+     * Records a spawn, completing the oldest pending death on its point.
+     */
+    void onSpawn(int npcIndex, int npcId, WorldPoint location, int tick)
+    {
+        int tile = PackedCoords.pack(location);
+        spawnTiles.put(npcIndex, tile);
+
+        int point = find(npcId, cellOf(tile));
+        if (point < 0 || pendingCounts[point] == 0)
+        {
+            return;
+        }
+
+        int interval = tick - pendingDeaths[point * MAX_PENDING];
+        removePending(point, 0);
+        lastUsed[point] = tick;
+        if (interval > 0 && interval <= MAX_INTERVAL_TICKS)
+        {
+            intervals[point] = samples[point] == 0 ? interval : intervals[point] + EWMA_WEIGHT * (interval - intervals[point]);
+            samples[point]++;
+        }
+    }
+
+    /**
+     * Records the tile of an NPC that started being tracked without spawning, e.g.
+     * because it was already in the scene when the search changed. It stands in for
+     * the spawn tile unless the real one is known, and completes no pending death.
+     */
+    void onSeen(int npcIndex, WorldPoint location)
+    {
+        if (!spawnTiles.containsKey(npcIndex))
+        {
+            spawnTiles.put(npcIndex, PackedCoords.pack(location));
+        }
+    }
+
+    /**
+     * Records a death, queuing it on the point the NPC spawned at, or where it died if
+     * its spawn wasn't seen.
+     */
+    void onDeath(int npcIndex, int npcId, WorldPoint location, int tick)
+    {
+        int tile = spawnTiles.containsKey(npcIndex) ? spawnTiles.get(npcIndex, 0) : PackedCoords.pack(location);
+        spawnTiles.remove(npcIndex);
+
+        int cell = cellOf(tile);
+        int point = find(npcId, cell);
+        if (point < 0)
+        {
+            point = allocate(npcId, cell);
+        }
+        lastUsed[point] = tick;
+
+        if (pendingCounts[point] == MAX_PENDING)
+        {
+            removePending(point, 0);
+        }
+        pendingDeaths[point * MAX_PENDING + pendingCounts[point]++] = tick;
+    }
+
+    /**
+     * Forgets an NPC that left the scene without dying.
+     */
+    void onDespawn(int npcIndex)
+    {
+        spawnTiles.remove(npcIndex);
+    }
+
+    /**
+     * Drops the pending deaths and spawn tiles, e.g. when a new scene loads, since the
+     * spawns that follow are NPCs coming into view rather than respawning.
+     * Learned intervals are kept.
+     */
+    void clearPending()
+    {
+        Arrays.fill(pendingCounts, 0, pointCount, 0);
+        spawnTiles.clear();
+    }
+
+    void clear()
+    {
+        pointCount = 0;
+        spawnTiles.clear();
+    }
+
+    /**
+     * Ticks until each pending death within {@code distance} tiles of the player is
+     * expected to respawn, soonest first, for points that have been timed at least
+     * once. Negative when a respawn is overdue.
+     */
+    int[] getCountdowns(WorldPoint player, int tick, int distance)
+    {
+        if (player == null)
+        {
+            return new int[0];
+        }
+
+        IntList countdowns = new IntList();
+        for (int point = 0; point < pointCount; point++)
+        {
+            int cell = cells[point];
+            if (samples[point] == 0 || PackedCoords.plane(cell) != player.getPlane()
+                || Math.abs(PackedCoords.x(cell) + CELL_SIZE / 2 - player.getX()) > distance
+                || Math.abs(PackedCoords.y(cell) + CELL_SIZE / 2 - player.getY()) > distance)
+            {
+                continue;
+            }
+
+            int interval = Math.round(intervals[point]);
+            for (int i = 0; i < pendingCounts[point]; i++)
+            {
+                int remaining = pendingDeaths[point * MAX_PENDING + i] + interval - tick;
+                // A death twice as old as its interval has been missed, the mob probably came back out of view
+                if (remaining > -interval)
+                {
+                    countdowns.add(remaining);
+                }
+            }
+        }
+
+        int[] result = countdowns.toArray();
+        Arrays.sort(result);
+        return result;
+    }
+
+    private int find(int npcId, int cell)
+    {
+        for (int point = 0; point < pointCount; point++)
+        {
+            if (npcIds[point] == npcId && cells[point] == cell)
+            {
+                return point;
+            }
+        }
+        return -1;
+    }
+
+    private int allocate(int npcId, int cell)
+    {
+        int point;
+        if (pointCount < MAX_POINTS)
+        {
+            point = pointCount++;
+        }
+        else
+        {
+            // Evict the coldest point
+            point = 0;
+            for (int i = 1; i < MAX_POINTS; i++)
+            {
+                if (lastUsed[i] < lastUsed[point])
+                {
+                    point = i;
+                }
+            }
+        }
+
+        npcIds[point] = npcId;
+        cells[point] = cell;
+        intervals[point] = 0;
+        samples[point] = 0;
+        pendingCounts[point] = 0;
+        return point;
+    }
+
+    private void removePending(int point, int index)
+    {
+        int base = point * MAX_PENDING;
+        int count = --pendingCounts[point];
+        System.arraycopy(pendingDeaths, base + index + 1, pendingDeaths, base + index, count - index);
+    }
+
+    private static int cellOf(int tile)
+    {
+        return PackedCoords.pack(PackedCoords.x(tile) & -CELL_SIZE, PackedCoords.y(tile) & -CELL_SIZE, PackedCoords.plane(tile));
+    }
+}
@@ -0,0 +1,145 @@
+package com.mobslocator;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses and resolves the configured search once, when it changes, and holds the result
+ * for the overlays to read every frame without recomputing or allocating anything.
+ * <p>
+ * Resolving can mean clustering spawns, so it is split in two: {@link #update} only
+ * parses and publishes a placeholder without locations, and {@link #resolve()}, run on
+ * a background executor, queries {@link MobSpawnData} and replaces the placeholder.
+ * A few recently used searches are kept in a small LRU so switching back to an earlier
+ * search doesn't have to query {@link MobSpawnData} again.
+ */
+class SearchSession
+{
+    private static final int RECENT_TERMS = 8;
+
+    private final Map<String, Result> recent = new LinkedHashMap<String, Result>(16, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Result> eldest)
+        {
+            return size() > RECENT_TERMS;
+        }
+    };
+
+    private volatile Result current = Result.EMPTY;
+
+    /**
+     * The result for the current search. Safe to call from any thread.
+     */
+    Result getCurrent()
+    {
+        return current;
+    }
+
+    /**
+     * Parses a raw search as typed into the config and makes it current, reusing a
+     * recent result if there is one. Does no I/O or clustering, so it is safe to call
+     * from the client or Swing thread. See {@link MobQuery} for the syntax.
+     *
+     * @return true if the current result is a placeholder that {@link #resolve()} has to fill in
+     */
+    synchronized boolean update(String searchedMob)
+    {
+        MobQuery query = MobQuery.parse(searchedMob);
+        if (query.isEmpty())
+        {
+            current = Result.EMPTY;
+            return false;
+        }
+
+        // Keyed by the normalized text, so equivalent searches share an entry
+        Result result = recent.get(query.toString());
+        current = result != null ? result : new Result(query, Collections.emptyList(), false);
+        return result == null;
+    }
+
+    /**
+     * Resolves the current placeholder against the spawn data and publishes the result,
+     * unless the search changed in the meantime. Does nothing while the spawn data is
+     * still loading; call it again once it has loaded. Slow, keep it off the client and
+     * render threads.
+     */
+    void resolve()
+    {
+        Result placeholder = current;
+        if (placeholder.isLoaded() || !MobSpawnData.isLoaded())
+        {
+            return;
+        }
+
+        // Not under the lock, so update() never waits on clustering
+        Result result = new Result(placeholder.query, MobSpawnData.getSpawnLocations(placeholder.query), true);
+        synchronized (this)
+        {
+            if (current == placeholder)
+            {
+                recent.put(result.getTerm(), result);
+                current = result;
+            }
+        }
+    }
+
+    synchronized void clear()
+    {
+        recent.clear();
+        current = Result.EMPTY;
+    }
+
+    /**
+     * An immutable, resolved search.
+     */
+    static final class Result
+    {
+        static final Result EMPTY = new Result(MobQuery.EMPTY, Collections.emptyList(), true);
+
+        private final MobQuery query;
+        private final List<MobSpawnData.SpawnLocation> spawnLocations;
+        private final boolean loaded;
+
+        private Result(MobQuery query, List<MobSpawnData.SpawnLocation> spawnLocations, boolean loaded)
+        {
+            this.query = query;
+            this.spawnLocations = Collections.unmodifiableList(spawnLocations);
+            this.loaded = loaded;
+        }
+
+        /**
+         * The normalized search text; empty when nothing is being searched.
+         */
+        String getTerm()
+        {
+            return query.toString();
+        }
+
+        MobQuery getQuery()
+        {
+            return query;
+        }
+
+        boolean isEmpty()
+        {
+            return query.isEmpty();
+        }
+
+        List<MobSpawnData.SpawnLocation> getSpawnLocations()
+        {
+            return spawnLocations;
+        }
+
+        /**
+         * False for a placeholder that hasn't been resolved yet, e.g. because
+         * {@link MobSpawnData} is still loading.
+         */
+        boolean isLoaded()
+        {
+            return loaded;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.mobslocator;
+
+import com.mobslocator.collections.IntIntHashMap;
+import com.mobslocator.collections.IntList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Groups spawn points into clusters by single linkage: two spawns on the same plane
+ * end up in the same cluster if they are connected by a chain of spawns each within
+ * {@code distance} tiles (Chebyshev) of the next.
+ * <p>
+ * Spawns are hashed into a grid with {@code distance}-sized cells. Every spawn in a
+ * cell is within {@code distance} of every other, so each cell is connected by
+ * construction. Only neighbouring cells need to be linked, and each link can be
+ * decided from the cells' x-sorted point lists in linear time. The whole pass is
+ * O(n log n), dominated by the initial sort.
+ * <p>
+ * The result doesn't depend on input order. Clusters come out ordered by their
+ * smallest spawn, and each cluster's spawns are sorted by plane, x, then y.
+ */
+final class SpawnClusterer
+{
+    private SpawnClusterer()
+    {
+    }
+
+    /**
+     * @param spawns packed spawn coordinates (see {@link PackedCoords})
+     * @param distance the maximum linking distance, in tiles, at least 2
+     * @return the packed coordinates of each cluster
+     */
+    static int[][] cluster(int[] spawns, int distance)
+    {
+        if (distance < 2)
+        {
+            throw new IllegalArgumentException("distance must be at least 2, was " + distance);
+        }
+
+        int[] points = sortedByPlaneXY(spawns);
+        int n = points.length;
+        if (n == 0)
+        {
+            return new int[0][];
+        }
+
+        // Hash points into cells. Points are visited in sorted order, so each cell's list is sorted by x
+        IntIntHashMap cellIds = new IntIntHashMap(n);
+        List<IntList> cells = new ArrayList<>();
+        IntList cellKeys = new IntList();
+        int[] cellOfPoint = new int[n];
+        for (int i = 0; i < n; i++)
+        {
+            int key = cellKey(PackedCoords.x(points[i]) / distance, PackedCoords.y(points[i]) / distance, PackedCoords.plane(points[i]));
+            int cell = cellIds.get(key, -1);
+            if (cell < 0)
+            {
+                cell = cells.size();
+                cellIds.put(key, cell);
+                cells.add(new IntList(4));
+                cellKeys.add(key);
+            }
+            cells.get(cell).add(i);
+            cellOfPoint[i] = cell;
+        }
+
+        int[] parent = new int[cells.size()];
+        for (int i = 0; i < parent.length; i++)
+        {
+            parent[i] = i;
+        }
+
+        // Link each cell with its right, upper, upper-right and lower-right neighbours;
+        // the other four directions are covered when the neighbour is the one visited
+        for (int cell = 0; cell < cells.size(); cell++)
+        {
+            int key = cellKeys.get(cell);
+            int cellX = cellX(key);
+            int cellY = cellY(key);
+            int plane = cellPlane(key);
+
+            int right = cellIds.get(cellKey(cellX + 1, cellY, plane), -1);
+            if (right >= 0 && linkedAlongX(points, cells.get(cell), cells.get(right), distance))
+            {
+                union(parent, cell, right);
+            }
+
+            int up = cellIds.get(cellKey(cellX, cellY + 1, plane), -1);
+            if (up >= 0 && linkedAlongY(points, cells.get(cell), cells.get(up), distance))
+            {
+                union(parent, cell, up);
+            }
+
+            int upRight = cellIds.get(cellKey(cellX + 1, cellY + 1, plane), -1);
+            if (upRight >= 0 && linkedDiagonally(points, cells.get(cell), cells.get(upRight), distance, 1))
+            {
+                union(parent, cell, upRight);
+            }
+
+            int downRight = cellIds.get(cellKey(cellX + 1, cellY - 1, plane), -1);
+            if (downRight >= 0 && linkedDiagonally(points, cells.get(cell), cells.get(downRight), distance, -1))
+            {
+                union(parent, cell, downRight);
+            }
+        }
+
+        // Number the clusters in order of their first (smallest) point
+        int[] clusterOfRoot = new int[cells.size()];
+        Arrays.fill(clusterOfRoot, -1);
+        List<IntList> clusters = new ArrayList<>();
+        for (int i = 0; i < n; i++)
+        {
+            int root = find(parent, cellOfPoint[i]);
+            if (clusterOfRoot[root] < 0)
+            {
+                clusterOfRoot[root] = clusters.size();
+                clusters.add(new IntList());
+            }
+            clusters.get(clusterOfRoot[root]).add(points[i]);
+        }
+
+        int[][] result = new int[clusters.size()][];
+        for (int i = 0; i < result.length; i++)
+        {
+            result[i] = clusters.get(i).toArray();
+        }
+        return result;
+    }
+
+    /**
+     * Cells side by side in the same row: every y difference is already below
+     * {@code distance}, so only the closest x values matter.
+     */
+    private static boolean linkedAlongX(int[] points, IntList left, IntList right, int distance)
+    {
+        int maxLeftX = PackedCoords.x(points[left.get(left.size() - 1)]);
+        int minRightX = PackedCoords.x(points[right.get(0)]);
+        return minRightX - maxLeftX <= distance;
+    }
+
+    /**
+     * Cells stacked in the same column: every x difference is already below
+     * {@code distance}, so only the closest y values matter.
+     */
+    private static boolean linkedAlongY(int[] points, IntList lower, IntList upper, int distance)
+    {
+        int maxLowerY = Integer.MIN_VALUE;
+        for (int i = 0; i < lower.size(); i++)
+        {
+            maxLowerY = Math.max(maxLowerY, PackedCoords.y(points[lower.get(i)]));
+        }
+        for (int i = 0; i < upper.size(); i++)
+        {
+            if (PackedCoords.y(points[upper.get(i)]) - maxLowerY <= distance)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Diagonal neighbours, with {@code other} one column right and one row up
+     * ({@code ySign} 1) or down ({@code ySign} -1) from {@code cell}. Walks
+     * {@code other}'s points from largest x down while growing the set of
+     * {@code cell}'s points close enough in x, keeping the best y seen so far.
+     */
+    private static boolean linkedDiagonally(int[] points, IntList cell, IntList other, int distance, int ySign)
+    {
+        int next = cell.size() - 1;
+        int bestY = Integer.MIN_VALUE;
+        for (int i = other.size() - 1; i >= 0; i--)
+        {
+            int point = points[other.get(i)];
+            int minX = PackedCoords.x(point) - distance;
+            while (next >= 0 && PackedCoords.x(points[cell.get(next)]) >= minX)
+            {
+                bestY = Math.max(bestY, ySign * PackedCoords.y(points[cell.get(next)]));
+                next--;
+            }
+            if (bestY != Integer.MIN_VALUE && ySign * PackedCoords.y(point) - bestY <= distance)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] sortedByPlaneXY(int[] spawns)
+    {
+        // Packed coordinates put the plane in the sign bit, so sort on a rearranged key instead
+        long[] keys = new long[spawns.length];
+        for (int i = 0; i < spawns.length; i++)
+        {
+            int spawn = spawns[i];
+            keys[i] = ((long) PackedCoords.plane(spawn) << 30) | ((long) PackedCoords.x(spawn) << 15) | PackedCoords.y(spawn);
+        }
+        Arrays.sort(keys);
+
+        int[] sorted = new int[keys.length];
+        for (int i = 0; i < keys.length; i++)
+        {
+            long key = keys[i];
+            sorted[i] = PackedCoords.pack((int) ((key >>> 15) & 0x7FFF), (int) (key & 0x7FFF), (int) (key >>> 30));
+        }
+        return sorted;
+    }
+
+    private static int find(int[] parent, int node)
+    {
+        while (parent[node] != node)
+        {
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+        return node;
+    }
+
+    private static void union(int[] parent, int a, int b)
+    {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB)
+        {
+            parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+
+    private static int cellKey(int cellX, int cellY, int plane)
+    {
+        // With distance >= 2 a cell coordinate fits in 14 bits; the +1 keeps the y - 1 neighbour of row 0 non-negative
+        return (plane << 28) | ((cellX & 0x3FFF) << 14) | ((cellY + 1) & 0x3FFF);
+    }
+
+    private static int cellX(int key)
+    {
+        return (key >>> 14) & 0x3FFF;
+    }
+
+    private static int cellY(int key)
+    {
+        return (key & 0x3FFF) - 1;
+    }
+
+    private static int cellPlane(int key)
+    {
+        return key >>> 28;
+    }
+}
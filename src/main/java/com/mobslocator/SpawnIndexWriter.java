@@ -0,0 +1,127 @@
+package com.mobslocator;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compiles the JSON spawn and region resources into the binary index that
+ * {@link MobSpawnData#readSpawnIndex} reads, using the same JSON readers as the
+ * fallback load. Run at build time by the buildSpawnIndex task in build.gradle.
+ * <p>
+ * Layout, big-endian: magic, version, a table of region and mob names (u16 length +
+ * UTF-8 each), the regions as (name index, minX, minY, maxX, maxY), then per mob its
+ * name index, spawn count and packed spawns (see {@link PackedCoords}). Mobs are
+ * sorted by name, so the same data always gives the same index, and with it the same
+ * {@link SpawnLocationCache} key.
+ */
+final class SpawnIndexWriter
+{
+    private SpawnIndexWriter()
+    {
+    }
+
+    /**
+     * Arguments: the index file to write, npc_spawns.json, then the region files in
+     * the order they are loaded. Missing input files are skipped.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        List<RegionIndex.Region> regions = new ArrayList<>();
+        for (int i = 2; i < args.length; i++)
+        {
+            File regionFile = new File(args[i]);
+            if (regionFile.exists())
+            {
+                try (JsonReader reader = open(regionFile))
+                {
+                    MobSpawnData.readRegions(reader, regions);
+                }
+            }
+        }
+
+        Map<String, int[]> spawnsByName = new TreeMap<>();
+        File spawnFile = new File(args[1]);
+        if (spawnFile.exists())
+        {
+            try (JsonReader reader = open(spawnFile))
+            {
+                MobSpawnData.readSpawnData(reader, spawnsByName);
+            }
+        }
+        else
+        {
+            System.err.println(spawnFile.getName() + " not found, spawn index will contain regions only");
+        }
+
+        File indexFile = new File(args[0]);
+        indexFile.getParentFile().mkdirs();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile))))
+        {
+            write(regions, spawnsByName, out);
+        }
+        System.out.println("Wrote spawn index: " + spawnsByName.size() + " mobs, " + regions.size() + " regions");
+    }
+
+    static void write(List<RegionIndex.Region> regions, Map<String, int[]> spawnsByName, DataOutputStream out) throws IOException
+    {
+        Map<String, Integer> names = new LinkedHashMap<>();
+        for (RegionIndex.Region region : regions)
+        {
+            names.putIfAbsent(region.name, names.size());
+        }
+        for (String name : spawnsByName.keySet())
+        {
+            names.putIfAbsent(name, names.size());
+        }
+
+        out.writeInt(MobSpawnData.SPAWN_INDEX_MAGIC);
+        out.writeInt(MobSpawnData.SPAWN_INDEX_VERSION);
+        out.writeInt(names.size());
+        for (String name : names.keySet())
+        {
+            byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+            out.writeShort(utf8.length);
+            out.write(utf8);
+        }
+
+        out.writeInt(regions.size());
+        for (RegionIndex.Region region : regions)
+        {
+            out.writeInt(names.get(region.name));
+            out.writeInt(region.minX);
+            out.writeInt(region.minY);
+            out.writeInt(region.maxX);
+            out.writeInt(region.maxY);
+        }
+
+        out.writeInt(spawnsByName.size());
+        for (Map.Entry<String, int[]> entry : spawnsByName.entrySet())
+        {
+            out.writeInt(names.get(entry.getKey()));
+            out.writeInt(entry.getValue().length);
+            for (int spawn : entry.getValue())
+            {
+                out.writeInt(spawn);
+            }
+        }
+    }
+
+    private static JsonReader open(File file) throws IOException
+    {
+        return new Gson().newJsonReader(new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)));
+    }
+}
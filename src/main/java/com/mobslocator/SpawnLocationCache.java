@@ -0,0 +1,244 @@
+package com.mobslocator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.RuneLite;
+
+/**
+ * Keeps the spawn locations clustered in earlier sessions in
+ * {@code .runelite/mobs-locator/spawn-locations.bin}, so a mob searched before
+ * doesn't have to be clustered again on the next launch.
+ * <p>
+ * Clustering is deterministic for given spawn data, so the file is keyed by a
+ * SHA-256 of the bundled data it was computed from (see {@link #newKeyDigest()}).
+ * A file with another key or format version is ignored and replaced by the next
+ * save. Spawns learned during play change a few mobs every session, so they are
+ * not part of the key; instead each mob's locations are stored with a hash of the
+ * spawns they were clustered from (see {@link #hashSpawns(int[])}), and only the
+ * mobs whose spawns changed since are dropped on load.
+ * <p>
+ * Layout, big-endian: magic, version, the 32 byte key, a string table of mob
+ * and area names (u16 length + UTF-8 each), then per mob its name's string
+ * index, its spawn hash and its locations as (area string index, count, packed
+ * center, members byte).
+ */
+@Slf4j
+final class SpawnLocationCache
+{
+    private static final int MAGIC = 0x4D4C5343; // "MLSC"
+    // Bump whenever clustering or area naming changes, since that doesn't change the key
+    private static final int VERSION = 2;
+    private static final int KEY_LENGTH = 32;
+    static final File CACHE_FILE = new File(new File(RuneLite.RUNELITE_DIR, "mobs-locator"), "spawn-locations.bin");
+
+    private SpawnLocationCache()
+    {
+    }
+
+    /**
+     * A digest for the cache key. Feed it everything the clustered locations depend on.
+     */
+    static MessageDigest newKeyDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // Every JRE is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Hash of the spawn points a mob's locations are clustered from. 0 if the mob has none.
+     */
+    static long hashSpawns(int[] spawns)
+    {
+        if (spawns == null)
+        {
+            return 0;
+        }
+
+        // 64-bit FNV-1a over the packed points; order matters, merged spawn arrays are built deterministically
+        long hash = 0xCBF29CE484222325L;
+        for (int spawn : spawns)
+        {
+            hash = (hash ^ spawn) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Reads the cached locations by mob name from a cache file, normally {@link #CACHE_FILE}.
+     * Returns an empty map if there is no cache yet, it was written for other data, or it
+     * can't be read.
+     *
+     * @param spawnHashes the {@link #hashSpawns(int[])} of each mob's current spawns, by
+     *                    name; mobs whose stored hash differs are left out
+     */
+    static Map<String, List<MobSpawnData.SpawnLocation>> load(File cacheFile, byte[] key, ToLongFunction<String> spawnHashes)
+    {
+        if (!cacheFile.isFile())
+        {
+            return Collections.emptyMap();
+        }
+
+        try
+        {
+            // Read in one go rather than mapped, since a mapped file stays open until the
+            // buffer is collected and Windows won't let the next save replace it until then
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(cacheFile.toPath()));
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+            {
+                log.debug("Ignoring spawn location cache with unexpected header");
+                return Collections.emptyMap();
+            }
+
+            byte[] fileKey = new byte[KEY_LENGTH];
+            buffer.get(fileKey);
+            if (!Arrays.equals(fileKey, key))
+            {
+                log.debug("Spawn data changed, ignoring spawn location cache");
+                return Collections.emptyMap();
+            }
+
+            String[] strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++)
+            {
+                byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            int mobCount = buffer.getInt();
+            int stale = 0;
+            Map<String, List<MobSpawnData.SpawnLocation>> locationsByName = new HashMap<>(mobCount * 2);
+            for (int i = 0; i < mobCount; i++)
+            {
+                String name = strings[buffer.getInt()];
+                long spawnHash = buffer.getLong();
+                MobSpawnData.SpawnLocation[] locations = new MobSpawnData.SpawnLocation[buffer.getInt()];
+                for (int j = 0; j < locations.length; j++)
+                {
+                    String areaName = strings[buffer.getInt()];
+                    int count = buffer.getInt();
+                    int center = buffer.getInt();
+                    boolean members = buffer.get() != 0;
+                    locations[j] = new MobSpawnData.SpawnLocation(areaName, count, PackedCoords.toWorldPoint(center), members);
+                }
+
+                long currentHash = spawnHashes.applyAsLong(name);
+                if (currentHash == 0 || currentHash != spawnHash)
+                {
+                    stale++;
+                    continue;
+                }
+                locationsByName.put(name, Collections.unmodifiableList(Arrays.asList(locations)));
+            }
+            if (stale > 0)
+            {
+                log.debug("Spawns of {} cached mobs changed, they will be clustered again", stale);
+            }
+            return locationsByName;
+        }
+        catch (Exception e)
+        {
+            log.warn("Error loading spawn location cache", e);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Replaces a cache file, normally {@link #CACHE_FILE}, with the given locations. The
+     * file is written next to the old one and moved over it, so a crash can't leave a
+     * half-written cache.
+     *
+     * @param spawnHashes the {@link #hashSpawns(int[])} of the spawns each mob's locations
+     *                    were clustered from, by name
+     */
+    static void save(File cacheFile, byte[] key, Map<String, List<MobSpawnData.SpawnLocation>> locationsByName,
+                     ToLongFunction<String> spawnHashes)
+    {
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        ByteArrayOutputStream mobBytes = new ByteArrayOutputStream();
+        try
+        {
+            DataOutputStream mobs = new DataOutputStream(mobBytes);
+            mobs.writeInt(locationsByName.size());
+            for (Map.Entry<String, List<MobSpawnData.SpawnLocation>> entry : locationsByName.entrySet())
+            {
+                mobs.writeInt(stringId(entry.getKey(), stringIds, strings));
+                mobs.writeLong(spawnHashes.applyAsLong(entry.getKey()));
+                mobs.writeInt(entry.getValue().size());
+                for (MobSpawnData.SpawnLocation location : entry.getValue())
+                {
+                    mobs.writeInt(stringId(location.getAreaName(), stringIds, strings));
+                    mobs.writeInt(location.getCount());
+                    mobs.writeInt(PackedCoords.pack(location.getApproximateCenter()));
+                    mobs.writeByte(location.isMembers() ? 1 : 0);
+                }
+            }
+
+            ByteArrayOutputStream fileBytes = new ByteArrayOutputStream(mobBytes.size() + 1024);
+            DataOutputStream file = new DataOutputStream(fileBytes);
+            file.writeInt(MAGIC);
+            file.writeInt(VERSION);
+            file.write(key);
+            file.writeInt(strings.size());
+            for (String string : strings)
+            {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                file.writeShort(bytes.length);
+                file.write(bytes);
+            }
+            mobBytes.writeTo(file);
+
+            Path target = cacheFile.toPath();
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), "spawn-locations", ".tmp");
+            try
+            {
+                Files.write(temp, fileBytes.toByteArray());
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally
+            {
+                Files.deleteIfExists(temp);
+            }
+            log.debug("Saved spawn locations of {} mobs to cache", locationsByName.size());
+        }
+        catch (IOException e)
+        {
+            log.warn("Error saving spawn location cache", e);
+        }
+    }
+
+    private static int stringId(String string, Map<String, Integer> stringIds, List<String> strings)
+    {
+        return stringIds.computeIfAbsent(string, k ->
+        {
+            strings.add(k);
+            return strings.size() - 1;
+        });
+    }
+}
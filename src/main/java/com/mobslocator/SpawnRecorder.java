@@ -0,0 +1,306 @@
+package com.mobslocator;
+
+import com.mobslocator.collections.IntIntHashMap;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.client.RuneLite;
+
+/**
+ * Learns spawn points during play by logging where NPCs spawn to
+ * {@code .runelite/mobs-locator/observed-spawns.log}.
+ * <p>
+ * {@link #record} is called from the client thread and only queues the observation.
+ * The queue is drained to the log in one buffered append by {@link #flush()}, which
+ * the plugin runs periodically on its executor. If the queue fills up between
+ * flushes, observations are dropped rather than blocking the client.
+ * <p>
+ * The log is only ever appended to while playing. {@link #compact()} runs once at
+ * startup, rewrites it with one record per mob and tile counting how often the mob
+ * was seen spawning there, and returns those tiles for merging into the spawn data.
+ * Only the {@link #MAX_TILES_PER_MOB} tiles seen most often are kept per mob, so
+ * stray tiles from NPCs that got past the plugin's filters can't pile up.
+ * <p>
+ * After a magic and version header, records are big-endian: npc id, packed world
+ * point (see {@link PackedCoords}), game tick first seen, times seen, then the name
+ * as u16 length + UTF-8. A record cut short by a crash is dropped by the next
+ * compaction.
+ */
+@Slf4j
+final class SpawnRecorder
+{
+    private static final int MAGIC = 0x4D4C534F; // "MLSO"
+    private static final int VERSION = 2;
+    private static final int QUEUE_CAPACITY = 4096;
+    static final int MAX_TILES_PER_MOB = 256;
+    private static final File LOG_FILE = new File(new File(RuneLite.RUNELITE_DIR, "mobs-locator"), "observed-spawns.log");
+
+    private final BlockingQueue<Observation> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicInteger dropped = new AtomicInteger();
+    // Nothing is appended before the log has been compacted, so new records never follow a torn one
+    private boolean compacted;
+
+    /**
+     * Queues a spawn for the next flush. Never blocks and does no I/O.
+     */
+    void record(int npcId, String name, WorldPoint location, int tick)
+    {
+        if (!queue.offer(new Observation(npcId, name, PackedCoords.pack(location), tick, 1)))
+        {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Appends everything queued so far to the log. Does nothing until {@link #compact()} has run.
+     */
+    synchronized void flush()
+    {
+        if (!compacted || queue.isEmpty())
+        {
+            return;
+        }
+
+        List<Observation> batch = new ArrayList<>(queue.size());
+        queue.drainTo(batch);
+
+        int droppedCount = dropped.getAndSet(0);
+        if (droppedCount > 0)
+        {
+            log.debug("Spawn observation queue was full, dropped {} observations", droppedCount);
+        }
+
+        try
+        {
+            Files.createDirectories(LOG_FILE.getParentFile().toPath());
+            boolean newFile = LOG_FILE.length() == 0;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(LOG_FILE, true))))
+            {
+                if (newFile)
+                {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                }
+                for (Observation observation : batch)
+                {
+                    observation.write(out);
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            log.warn("Error writing spawn observations", e);
+        }
+    }
+
+    /**
+     * Rewrites the log with the observations of a mob on the same tile merged, each mob
+     * capped to the tiles it was seen on most, and without records cut short. Mob names
+     * are matched case-insensitively, like in {@link MobSpawnData}.
+     *
+     * @return the kept packed spawn tiles of each observed mob, sorted, by lowercase name
+     */
+    synchronized Map<String, int[]> compact()
+    {
+        compacted = true;
+        if (!LOG_FILE.isFile())
+        {
+            return new HashMap<>();
+        }
+
+        Map<String, MobTiles> tilesByName = new HashMap<>();
+        int read = 0;
+        long length = LOG_FILE.length();
+        long consumed = 0;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(LOG_FILE))))
+        {
+            if (length < Integer.BYTES * 2 || in.readInt() != MAGIC || in.readInt() != VERSION)
+            {
+                log.warn("Discarding spawn observation log with unexpected header");
+                Files.delete(LOG_FILE.toPath());
+                return new HashMap<>();
+            }
+
+            consumed = Integer.BYTES * 2;
+
+            while (consumed < length)
+            {
+                Observation observation;
+                try
+                {
+                    observation = Observation.read(in);
+                }
+                catch (EOFException e)
+                {
+                    // A record the client didn't finish writing
+                    break;
+                }
+                consumed += observation.size();
+                read++;
+
+                tilesByName.computeIfAbsent(observation.name.toLowerCase(Locale.ROOT), k -> new MobTiles()).add(observation);
+            }
+        }
+        catch (IOException e)
+        {
+            log.warn("Error reading spawn observations", e);
+            return new HashMap<>();
+        }
+
+        List<Observation> kept = new ArrayList<>();
+        Map<String, int[]> spawns = new HashMap<>(tilesByName.size() * 2);
+        int capped = 0;
+        for (Map.Entry<String, MobTiles> entry : tilesByName.entrySet())
+        {
+            List<Observation> tiles = entry.getValue().tiles;
+            if (tiles.size() > MAX_TILES_PER_MOB)
+            {
+                // Real spawn points are seen again every respawn; stable, so ties keep the tile seen first
+                tiles.sort((a, b) -> Integer.compare(b.count, a.count));
+                capped += tiles.size() - MAX_TILES_PER_MOB;
+                tiles = tiles.subList(0, MAX_TILES_PER_MOB);
+            }
+
+            int[] points = new int[tiles.size()];
+            for (int i = 0; i < points.length; i++)
+            {
+                points[i] = tiles.get(i).position;
+            }
+            Arrays.sort(points);
+            spawns.put(entry.getKey(), points);
+            kept.addAll(tiles);
+        }
+
+        if (kept.size() < read || consumed != length)
+        {
+            rewrite(kept);
+        }
+        log.debug("Compacted {} spawn observations to {}, dropping {} rarely seen tiles", read, kept.size(), capped);
+        return spawns;
+    }
+
+    private static void rewrite(List<Observation> observations)
+    {
+        Path target = LOG_FILE.toPath();
+        try
+        {
+            Path temp = Files.createTempFile(target.getParent(), "observed-spawns", ".tmp");
+            try
+            {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp))))
+                {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    for (Observation observation : observations)
+                    {
+                        observation.write(out);
+                    }
+                }
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally
+            {
+                Files.deleteIfExists(temp);
+            }
+        }
+        catch (IOException e)
+        {
+            log.warn("Error compacting spawn observations", e);
+        }
+    }
+
+    /**
+     * The tiles one mob was seen spawning on while compacting, in the order first seen.
+     */
+    private static final class MobTiles
+    {
+        final List<Observation> tiles = new ArrayList<>();
+        // Index into tiles, by packed position
+        final IntIntHashMap slots = new IntIntHashMap();
+
+        void add(Observation observation)
+        {
+            int slot = slots.get(observation.position, -1);
+            if (slot < 0)
+            {
+                slots.put(observation.position, tiles.size());
+                tiles.add(observation);
+            }
+            else
+            {
+                tiles.get(slot).count += observation.count;
+            }
+        }
+    }
+
+    private static final class Observation
+    {
+        final int npcId;
+        final String name;
+        final int position;
+        final int tick;
+        // Times the mob was seen spawning on the tile, summed up by compaction
+        int count;
+
+        Observation(int npcId, String name, int position, int tick, int count)
+        {
+            this.npcId = npcId;
+            this.name = name;
+            this.position = position;
+            this.tick = tick;
+            this.count = count;
+        }
+
+        /**
+         * Number of bytes the record takes up in the log.
+         */
+        int size()
+        {
+            return Integer.BYTES * 4 + Short.BYTES + name.getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        void write(DataOutputStream out) throws IOException
+        {
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(npcId);
+            out.writeInt(position);
+            out.writeInt(tick);
+            out.writeInt(count);
+            out.writeShort(nameBytes.length);
+            out.write(nameBytes);
+        }
+
+        static Observation read(DataInputStream in) throws IOException
+        {
+            int npcId = in.readInt();
+            int position = in.readInt();
+            int tick = in.readInt();
+            int count = in.readInt();
+            byte[] nameBytes = new byte[in.readUnsignedShort()];
+            in.readFully(nameBytes);
+            return new Observation(npcId, new String(nameBytes, StandardCharsets.UTF_8), position, tick, count);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.mobslocator;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import net.runelite.api.NPC;
+
+/**
+ * The set of tracked NPCs, stored in arrays indexed by the client's NPC index
+ * instead of hashing NPC objects.
+ * <p>
+ * Members are also kept in a dense array for iteration, and removal swaps the
+ * last member into the freed slot, so adding, removing, membership checks and
+ * iteration are all O(1) per NPC and allocate nothing.
+ * <p>
+ * Like the client's own NPC list, this is only meant to be used from the client thread.
+ */
+final class TrackedNpcs extends AbstractSet<NPC>
+{
+    // The client's NPC index space
+    static final int MAX_NPCS = 65536;
+
+    private final NPC[] byIndex = new NPC[MAX_NPCS];
+    // Position of each NPC index in dense, plus one so the default 0 means untracked
+    private final int[] denseSlot = new int[MAX_NPCS];
+    private NPC[] dense = new NPC[64];
+    private int size;
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object o)
+    {
+        if (!(o instanceof NPC))
+        {
+            return false;
+        }
+        int index = ((NPC) o).getIndex();
+        return inRange(index) && byIndex[index] == o;
+    }
+
+    /**
+     * Adds the NPC. The client can reuse an index before the
+     * old NPC's despawn arrives; such a stale NPC is not replaced silently; remove
+     * it first (see {@link #getByIndex(int)}) so the caller can clean up after it.
+     *
+     * @return false if it was already tracked, another NPC is tracked under its index,
+     * or its index is out of range
+     */
+    @Override
+    public boolean add(NPC npc)
+    {
+        int index = npc.getIndex();
+        if (!inRange(index) || byIndex[index] != null)
+        {
+            return false;
+        }
+
+        if (size == dense.length)
+        {
+            dense = Arrays.copyOf(dense, size * 2);
+        }
+        byIndex[index] = npc;
+        dense[size] = npc;
+        denseSlot[index] = ++size;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o)
+    {
+        if (!contains(o))
+        {
+            return false;
+        }
+        int index = ((NPC) o).getIndex();
+
+        int slot = denseSlot[index] - 1;
+        NPC last = dense[--size];
+        dense[slot] = last;
+        denseSlot[last.getIndex()] = slot + 1;
+        dense[size] = null;
+        denseSlot[index] = 0;
+        byIndex[index] = null;
+        return true;
+    }
+
+    @Override
+    public void clear()
+    {
+        for (int i = 0; i < size; i++)
+        {
+            int index = dense[i].getIndex();
+            byIndex[index] = null;
+            denseSlot[index] = 0;
+            dense[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * The i-th tracked NPC, in no particular order, for index-based iteration.
+     */
+    NPC get(int i)
+    {
+        return dense[i];
+    }
+
+    /**
+     * The NPC tracked under a client NPC index, or null if there is none.
+     */
+    NPC getByIndex(int index)
+    {
+        return inRange(index) ? byIndex[index] : null;
+    }
+
+    @Override
+    public Iterator<NPC> iterator()
+    {
+        return new Iterator<NPC>()
+        {
+            private int next;
+
+            @Override
+            public boolean hasNext()
+            {
+                return next < size;
+            }
+
+            @Override
+            public NPC next()
+            {
+                if (next >= size)
+                {
+                    throw new NoSuchElementException();
+                }
+                return dense[next++];
+            }
+        };
+    }
+
+    private static boolean inRange(int index)
+    {
+        return index >= 0 && index < MAX_NPCS;
+    }
+}
@@ -0,0 +1,167 @@
+package com.mobslocator;
+
+import net.runelite.api.NPC;
+import net.runelite.api.coords.WorldPoint;
+
+/**
+ * An immutable copy of the tracking state, captured once per game tick and
+ * published by the plugin through a single volatile field.
+ * <p>
+ * Overlays read everything for a frame from one snapshot, so they never see the
+ * plugin's own collections halfway through an update and never need to lock.
+ * NPCs, their packed positions and their distances to the player are parallel
+ * arrays, copied in order of distance from the plugin's {@link NpcDistanceIndex};
+ * the distances are Chebyshev tile distances, or {@link #UNREACHABLE} for NPCs on
+ * another plane than the player. The nearest NPCs are the first entries and the
+ * NPCs within a radius a prefix, so frames never sort by distance.
+ * Expected respawns near the player, from {@link RespawnTimers}, are copied in
+ * as tick countdowns.
+ */
+final class TrackingSnapshot
+{
+    static final int UNREACHABLE = Integer.MAX_VALUE;
+    static final int NEAREST = 10;
+    static final TrackingSnapshot EMPTY = new TrackingSnapshot(new NPC[0], new int[0], new int[0], 0,
+        LocalPointSnapshot.EMPTY, null, 0, new int[0]);
+
+    private final NPC[] npcs;
+    private final int[] positions;
+    private final int[] distances;
+    private final int size;
+    private final LocalPointSnapshot localPoints;
+    private final WorldPoint playerLocation;
+    // Number of leading entries on the player's plane
+    private final int reachable;
+    // Ticks until each expected respawn, soonest first
+    private final int[] respawnCountdowns;
+
+    private TrackingSnapshot(NPC[] npcs, int[] positions, int[] distances, int size,
+                             LocalPointSnapshot localPoints, WorldPoint playerLocation,
+                             int reachable, int[] respawnCountdowns)
+    {
+        this.npcs = npcs;
+        this.positions = positions;
+        this.distances = distances;
+        this.size = size;
+        this.localPoints = localPoints;
+        this.playerLocation = playerLocation;
+        this.reachable = reachable;
+        this.respawnCountdowns = respawnCountdowns;
+    }
+
+    /**
+     * Copies the current state. Must be called on the client thread.
+     *
+     * @param trackedPositions the tracked NPCs' tiles, with the player's location as their origin
+     * @param playerLocation the player's location, or null if unknown
+     * @param respawnCountdowns see {@link RespawnTimers#getCountdowns}, not copied
+     */
+    static TrackingSnapshot capture(TrackedNpcs tracked, NpcDistanceIndex trackedPositions, WorldPoint playerLocation,
+                                    int[] respawnCountdowns)
+    {
+        int size = trackedPositions.size();
+        NPC[] npcs = new NPC[size];
+        int[] positions = new int[size];
+        int[] distances = new int[size];
+        int reachable = 0;
+
+        int i = 0;
+        for (int index = trackedPositions.first(); index != -1; index = trackedPositions.next(index))
+        {
+            npcs[i] = tracked.getByIndex(index);
+            positions[i] = trackedPositions.getPosition(index);
+            distances[i] = trackedPositions.getDistance(index);
+            if (distances[i] != UNREACHABLE)
+            {
+                reachable++;
+            }
+            i++;
+        }
+
+        return new TrackingSnapshot(npcs, positions, distances, size,
+            LocalPointSnapshot.of(tracked), playerLocation,
+            reachable, respawnCountdowns);
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    NPC getNpc(int i)
+    {
+        return npcs[i];
+    }
+
+    /**
+     * Packed world position of the i-th NPC (see {@link PackedCoords}).
+     */
+    int getPosition(int i)
+    {
+        return positions[i];
+    }
+
+    int getDistance(int i)
+    {
+        return distances[i];
+    }
+
+    /**
+     * Number of nearest reachable NPCs, at most {@link #NEAREST}. They are the first
+     * entries, closest first.
+     */
+    int getNearestCount()
+    {
+        return Math.min(reachable, NEAREST);
+    }
+
+    /**
+     * Number of NPCs within {@code radius} tiles of the player, which are the first
+     * entries. The radius must be below {@link NpcDistanceIndex#MAX_DISTANCE}.
+     */
+    int countWithin(int radius)
+    {
+        // Distances ascend, so this is the first entry farther than the radius
+        int low = 0;
+        int high = reachable;
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (distances[mid] <= radius)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    int getRespawnCount()
+    {
+        return respawnCountdowns.length;
+    }
+
+    /**
+     * Ticks until the n-th soonest expected respawn near the player; negative when overdue.
+     */
+    int getRespawnCountdown(int n)
+    {
+        return respawnCountdowns[n];
+    }
+
+    LocalPointSnapshot getLocalPoints()
+    {
+        return localPoints;
+    }
+
+    /**
+     * Where the player was when the snapshot was taken, or null if unknown.
+     */
+    WorldPoint getPlayerLocation()
+    {
+        return playerLocation;
+    }
+}
@@ -0,0 +1,310 @@
+package com.mobslocator;
+
+import com.mobslocator.collections.IntIntHashMap;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import net.runelite.api.Point;
+import net.runelite.api.coords.WorldPoint;
+
+/**
+ * Level-of-detail layout for the spawn markers on the world map.
+ * <p>
+ * Spawn locations closer together than {@link #MERGE_DISTANCE} pixels at the
+ * current zoom are merged into one marker, anchored on the location with the
+ * most spawns. Merging is done in world tiles, so it only has to be redone when
+ * the zoom or the search results change; panning just re-projects the merged
+ * markers. Markers that end up off screen are bucketed by direction from the
+ * center of the view into {@link #ARROW_SECTORS} sectors, each drawn as one
+ * arrow with a count.
+ * <p>
+ * {@link #update} does nothing unless the results, zoom, map position or viewport
+ * changed since the last call, so a still map costs no projection at all.
+ */
+class WorldMapMarkerLayout
+{
+    static final int MERGE_DISTANCE = 24;
+    static final int ARROW_SECTORS = 16;
+    // Arrows are kept this far inside the viewport margins
+    private static final int ARROW_INSET = 30;
+
+    private List<MobSpawnData.SpawnLocation> spawns;
+    private float zoom = Float.NaN;
+    private Point mapPosition;
+    private int left;
+    private int right;
+    private int top;
+    private int bottom;
+
+    // Merged groups, rebuilt when the results or zoom change
+    private int groupCount;
+    private int[] groupAnchor = new int[0];
+    private int[] groupLocations = new int[0];
+    private int[] groupSpawns = new int[0];
+    private String[] groupLabel = new String[0];
+
+    // On-screen markers, rebuilt when anything changes
+    private int markerCount;
+    private int[] markerGroup = new int[0];
+    private int[] markerX = new int[0];
+    private int[] markerY = new int[0];
+
+    // Off-screen groups per direction sector
+    private final int[] sectorLocations = new int[ARROW_SECTORS];
+    private final double[] sectorDx = new double[ARROW_SECTORS];
+    private final double[] sectorDy = new double[ARROW_SECTORS];
+    private final double[] arrowAngle = new double[ARROW_SECTORS];
+    private final int[] arrowX = new int[ARROW_SECTORS];
+    private final int[] arrowY = new int[ARROW_SECTORS];
+    private final String[] arrowLabel = new String[ARROW_SECTORS];
+
+    /**
+     * Recomputes the layout if any of its inputs changed.
+     *
+     * @param zoom world map zoom, in pixels per tile
+     * @param mapper projects a world point to the screen, or returns null if it isn't on the map
+     */
+    void update(List<MobSpawnData.SpawnLocation> spawns, float zoom, Point mapPosition,
+                int left, int right, int top, int bottom, Function<WorldPoint, Point> mapper)
+    {
+        boolean regroup = spawns != this.spawns || Float.compare(zoom, this.zoom) != 0;
+        if (!regroup && mapPosition != null && mapPosition.equals(this.mapPosition)
+            && left == this.left && right == this.right && top == this.top && bottom == this.bottom)
+        {
+            return;
+        }
+
+        this.spawns = spawns;
+        this.zoom = zoom;
+        this.mapPosition = mapPosition;
+        this.left = left;
+        this.right = right;
+        this.top = top;
+        this.bottom = bottom;
+
+        if (regroup)
+        {
+            group(spawns, zoom);
+        }
+        project(mapper);
+    }
+
+    /**
+     * Forgets the layout, so the next {@link #update} recomputes it from scratch.
+     */
+    void clear()
+    {
+        spawns = null;
+        mapPosition = null;
+        groupCount = 0;
+        markerCount = 0;
+        Arrays.fill(sectorLocations, 0);
+    }
+
+    int getMarkerCount()
+    {
+        return markerCount;
+    }
+
+    int getMarkerX(int marker)
+    {
+        return markerX[marker];
+    }
+
+    int getMarkerY(int marker)
+    {
+        return markerY[marker];
+    }
+
+    /**
+     * The marker's label: the anchor's area name, or the number of merged locations,
+     * with the total number of spawns. Built when the markers are merged, not per frame.
+     */
+    String getMarkerLabel(int marker)
+    {
+        return groupLabel[markerGroup[marker]];
+    }
+
+    /**
+     * Number of spawn locations off screen in the sector's direction; zero if the sector has no arrow.
+     */
+    int getArrowLocations(int sector)
+    {
+        return sectorLocations[sector];
+    }
+
+    double getArrowAngle(int sector)
+    {
+        return arrowAngle[sector];
+    }
+
+    int getArrowX(int sector)
+    {
+        return arrowX[sector];
+    }
+
+    int getArrowY(int sector)
+    {
+        return arrowY[sector];
+    }
+
+    /**
+     * The count drawn under the sector's arrow, or null if it points at a single location.
+     */
+    String getArrowLabel(int sector)
+    {
+        return arrowLabel[sector];
+    }
+
+    private void group(List<MobSpawnData.SpawnLocation> spawns, float zoom)
+    {
+        int n = spawns.size();
+        if (groupAnchor.length < n)
+        {
+            groupAnchor = new int[n];
+            groupLocations = new int[n];
+            groupSpawns = new int[n];
+            groupLabel = new String[n];
+            markerGroup = new int[n];
+            markerX = new int[n];
+            markerY = new int[n];
+        }
+        groupCount = 0;
+
+        // Biggest locations first so they become the anchors; ties keep result order
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++)
+        {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(spawns.get(b).getCount(), spawns.get(a).getCount()));
+
+        // Merge radius in tiles, and a grid of that cell size so only the 3x3 cells around a location need checking
+        int mergeTiles = zoom > 0 ? Math.max(1, (int) Math.ceil(MERGE_DISTANCE / zoom)) : 1;
+        IntIntHashMap cellHeads = new IntIntHashMap(n);
+        int[] nextInCell = new int[n];
+
+        for (int index : order)
+        {
+            WorldPoint center = spawns.get(index).getApproximateCenter();
+            int x = center.getX();
+            int y = center.getY();
+            int cellX = x / mergeTiles;
+            int cellY = y / mergeTiles;
+
+            int target = -1;
+            int targetDistance = Integer.MAX_VALUE;
+            for (int dx = -1; dx <= 1; dx++)
+            {
+                for (int dy = -1; dy <= 1; dy++)
+                {
+                    for (int group = cellHeads.get(cellKey(cellX + dx, cellY + dy), -1); group >= 0; group = nextInCell[group])
+                    {
+                        WorldPoint anchor = spawns.get(groupAnchor[group]).getApproximateCenter();
+                        int distance = Math.max(Math.abs(anchor.getX() - x), Math.abs(anchor.getY() - y));
+                        if (distance < mergeTiles && (distance < targetDistance || (distance == targetDistance && group < target)))
+                        {
+                            target = group;
+                            targetDistance = distance;
+                        }
+                    }
+                }
+            }
+
+            if (target < 0)
+            {
+                target = groupCount++;
+                groupAnchor[target] = index;
+                groupLocations[target] = 0;
+                groupSpawns[target] = 0;
+                int key = cellKey(cellX, cellY);
+                nextInCell[target] = cellHeads.get(key, -1);
+                cellHeads.put(key, target);
+            }
+            groupLocations[target]++;
+            groupSpawns[target] += spawns.get(index).getCount();
+        }
+
+        for (int group = 0; group < groupCount; group++)
+        {
+            groupLabel[group] = groupLocations[group] == 1
+                ? spawns.get(groupAnchor[group]).getAreaName() + " (" + groupSpawns[group] + ")"
+                : groupLocations[group] + " areas (" + groupSpawns[group] + ")";
+        }
+    }
+
+    private void project(Function<WorldPoint, Point> mapper)
+    {
+        markerCount = 0;
+        Arrays.fill(sectorLocations, 0);
+        Arrays.fill(sectorDx, 0);
+        Arrays.fill(sectorDy, 0);
+
+        int centerX = (left + right) / 2;
+        int centerY = (top + bottom) / 2;
+
+        for (int group = 0; group < groupCount; group++)
+        {
+            Point point = mapper.apply(spawns.get(groupAnchor[group]).getApproximateCenter());
+            if (point == null)
+            {
+                continue;
+            }
+
+            int x = point.getX();
+            int y = point.getY();
+            if (x >= left && x <= right && y >= top && y <= bottom)
+            {
+                markerGroup[markerCount] = group;
+                markerX[markerCount] = x;
+                markerY[markerCount] = y;
+                markerCount++;
+                continue;
+            }
+
+            double dx = x - centerX;
+            double dy = y - centerY;
+            double length = Math.hypot(dx, dy);
+            double angle = Math.atan2(dy, dx);
+            int sector = Math.floorMod((int) Math.round(angle / (2 * Math.PI / ARROW_SECTORS)), ARROW_SECTORS);
+            sectorLocations[sector] += groupLocations[group];
+            // Unit vectors, so each group pulls the sector's arrow equally whatever its distance
+            sectorDx[sector] += dx / length;
+            sectorDy[sector] += dy / length;
+        }
+
+        for (int sector = 0; sector < ARROW_SECTORS; sector++)
+        {
+            if (sectorLocations[sector] > 0)
+            {
+                placeArrow(sector, Math.atan2(sectorDy[sector], sectorDx[sector]), centerX, centerY);
+                arrowLabel[sector] = sectorLocations[sector] > 1 ? String.valueOf(sectorLocations[sector]) : null;
+            }
+        }
+    }
+
+    /**
+     * Places the sector's arrow where a ray from the view center at {@code angle}
+     * meets the inset viewport edge.
+     */
+    private void placeArrow(int sector, double angle, int centerX, int centerY)
+    {
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        double halfWidth = Math.max(0, (right - left) / 2.0 - ARROW_INSET);
+        double halfHeight = Math.max(0, (bottom - top) / 2.0 - ARROW_INSET);
+
+        double scale = Math.min(
+            cos != 0 ? halfWidth / Math.abs(cos) : Double.MAX_VALUE,
+            sin != 0 ? halfHeight / Math.abs(sin) : Double.MAX_VALUE);
+
+        arrowAngle[sector] = angle;
+        arrowX[sector] = centerX + (int) (cos * scale);
+        arrowY[sector] = centerY + (int) (sin * scale);
+    }
+
+    private static int cellKey(int cellX, int cellY)
+    {
+        return (cellX << 16) | (cellY & 0xFFFF);
+    }
+}
@@ -0,0 +1,207 @@
+package com.mobslocator;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Pre-renders the world map markers (the spawn star, directional arrows in 5 degree
+ * steps and the area labels) into images, so each frame only has to blit them
+ * instead of redoing the trigonometry, font derivation and text measurement.
+ * <p>
+ * Sprites are drawn with the rendering hints of the graphics they are first
+ * requested for, and everything is re-rendered if the marker color changes.
+ */
+class WorldMapSpriteCache
+{
+    static final int STAR_SIZE = 12;
+    static final int ARROW_SIZE = 20;
+
+    private static final int ARROW_BUCKET_DEGREES = 5;
+    private static final int ARROW_BUCKETS = 360 / ARROW_BUCKET_DEGREES;
+    private static final int MAX_LABELS = 256;
+    private static final Color LABEL_BACKGROUND = new Color(0, 0, 0, 220);
+    private static final BasicStroke ARROW_OUTLINE = new BasicStroke(2);
+
+    private final Sprite[] arrows = new Sprite[ARROW_BUCKETS];
+    private final Map<String, Sprite> labels = new LinkedHashMap<String, Sprite>(64, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Sprite> eldest)
+        {
+            return size() > MAX_LABELS;
+        }
+    };
+    private Sprite star;
+
+    private Color color;
+    private Font baseFont;
+    private Font labelFont;
+    private RenderingHints hints;
+
+    /**
+     * Must be called before the sprites are used in a frame. Drops every sprite
+     * if the color or the graphics font changed since they were rendered.
+     */
+    void beginFrame(Graphics2D graphics, Color color)
+    {
+        Font font = graphics.getFont();
+        if (!color.equals(this.color) || !Objects.equals(font, baseFont))
+        {
+            this.color = color;
+            baseFont = font;
+            labelFont = font.deriveFont(Font.BOLD, 16f);
+            hints = (RenderingHints) graphics.getRenderingHints().clone();
+            star = null;
+            Arrays.fill(arrows, null);
+            labels.clear();
+        }
+    }
+
+    Sprite getStar()
+    {
+        if (star == null)
+        {
+            int[] xPoints = new int[10];
+            int[] yPoints = new int[10];
+
+            double angle = Math.PI / 2; // Start from top
+            double angleStep = Math.PI / 5; // 10 points = 5 outer + 5 inner
+            int center = STAR_SIZE + 1;
+
+            for (int i = 0; i < 10; i++)
+            {
+                double radius = (i % 2 == 0) ? STAR_SIZE : STAR_SIZE * 0.4; // Outer and inner points
+                xPoints[i] = center + (int) (radius * Math.cos(angle));
+                yPoints[i] = center - (int) (radius * Math.sin(angle));
+                angle += angleStep;
+            }
+
+            BufferedImage image = new BufferedImage(center * 2 + 1, center * 2 + 1, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = createGraphics(image);
+            g.setColor(color);
+            g.fillPolygon(xPoints, yPoints, 10);
+            g.setColor(Color.BLACK);
+            g.drawPolygon(xPoints, yPoints, 10);
+            g.dispose();
+
+            star = new Sprite(image, center, center, 0);
+        }
+        return star;
+    }
+
+    /**
+     * Arrow pointing along {@code angle} (radians, screen coordinates), rounded to the nearest bucket.
+     */
+    Sprite getArrow(double angle)
+    {
+        int bucket = Math.floorMod((int) Math.round(Math.toDegrees(angle) / ARROW_BUCKET_DEGREES), ARROW_BUCKETS);
+        Sprite arrow = arrows[bucket];
+        if (arrow == null)
+        {
+            double bucketAngle = Math.toRadians(bucket * ARROW_BUCKET_DEGREES);
+            int center = ARROW_SIZE + 2;
+            int[] xPoints = new int[3];
+            int[] yPoints = new int[3];
+
+            xPoints[0] = center + (int) (ARROW_SIZE * Math.cos(bucketAngle));
+            yPoints[0] = center + (int) (ARROW_SIZE * Math.sin(bucketAngle));
+
+            xPoints[1] = center + (int) (ARROW_SIZE * 0.4 * Math.cos(bucketAngle + 2.5));
+            yPoints[1] = center + (int) (ARROW_SIZE * 0.4 * Math.sin(bucketAngle + 2.5));
+
+            xPoints[2] = center + (int) (ARROW_SIZE * 0.4 * Math.cos(bucketAngle - 2.5));
+            yPoints[2] = center + (int) (ARROW_SIZE * 0.4 * Math.sin(bucketAngle - 2.5));
+
+            BufferedImage image = new BufferedImage(center * 2 + 1, center * 2 + 1, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = createGraphics(image);
+            g.setColor(color);
+            g.fillPolygon(xPoints, yPoints, 3);
+            g.setColor(Color.BLACK);
+            g.setStroke(ARROW_OUTLINE);
+            g.drawPolygon(xPoints, yPoints, 3);
+            g.dispose();
+
+            arrow = new Sprite(image, center, center, 0);
+            arrows[bucket] = arrow;
+        }
+        return arrow;
+    }
+
+    /**
+     * Boxed label for a spawn, anchored at the horizontal center of the text and 2 pixels
+     * below the top of the box, which is where the text line starts.
+     * Its {@link Sprite#width} is the width of the text alone.
+     */
+    Sprite getLabel(String text)
+    {
+        Sprite label = labels.get(text);
+        if (label == null)
+        {
+            // A throwaway 1x1 image is enough to get metrics in the right font and hints
+            Graphics2D measure = createGraphics(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB));
+            measure.setFont(labelFont);
+            FontMetrics fm = measure.getFontMetrics();
+            Rectangle2D bounds = fm.getStringBounds(text, measure);
+            measure.dispose();
+
+            int textWidth = (int) bounds.getWidth();
+            int boxWidth = textWidth + 10;
+            int boxHeight = fm.getHeight() + 4;
+
+            BufferedImage image = new BufferedImage(boxWidth + 1, boxHeight + 1, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = createGraphics(image);
+            g.setFont(labelFont);
+            g.setColor(LABEL_BACKGROUND);
+            g.fillRect(0, 0, boxWidth, boxHeight);
+            g.setColor(Color.BLACK);
+            g.drawRect(0, 0, boxWidth, boxHeight);
+            g.setColor(color);
+            g.drawString(text, 5, fm.getAscent() + 2);
+            g.dispose();
+
+            // Anchor so the text is centered on x with its top at y, as the box was drawn before
+            label = new Sprite(image, textWidth / 2 + 5, 2, textWidth);
+            labels.put(text, label);
+        }
+        return label;
+    }
+
+    private Graphics2D createGraphics(BufferedImage image)
+    {
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHints(hints);
+        return g;
+    }
+
+    static final class Sprite
+    {
+        final BufferedImage image;
+        // Position of the sprite's anchor point within the image
+        final int anchorX;
+        final int anchorY;
+        final int width;
+
+        private Sprite(BufferedImage image, int anchorX, int anchorY, int width)
+        {
+            this.image = image;
+            this.anchorX = anchorX;
+            this.anchorY = anchorY;
+            this.width = width;
+        }
+
+        void draw(Graphics2D graphics, int x, int y)
+        {
+            graphics.drawImage(image, x - anchorX, y - anchorY, null);
+        }
+    }
+}
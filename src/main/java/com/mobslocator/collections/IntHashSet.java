@@ -0,0 +1,177 @@
+package com.mobslocator.collections;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of primitive ints with linear probing, the set counterpart
+ * of {@link IntIntHashMap}.
+ * <p>
+ * Value 0 marks an empty slot in the table, so membership of 0 itself is kept
+ * on the side. Removal shifts following entries back instead of leaving
+ * tombstones.
+ */
+public final class IntHashSet
+{
+    private static final int EMPTY = 0;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int[] keys;
+    private int mask;
+    private int assigned;
+    private int resizeAt;
+
+    private boolean hasZeroKey;
+
+    public IntHashSet()
+    {
+        this(16);
+    }
+
+    public IntHashSet(int expectedSize)
+    {
+        allocate(tableSize(expectedSize));
+    }
+
+    public int size()
+    {
+        return assigned + (hasZeroKey ? 1 : 0);
+    }
+
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    public boolean contains(int key)
+    {
+        if (key == EMPTY)
+        {
+            return hasZeroKey;
+        }
+        return slotOf(key) >= 0;
+    }
+
+    /**
+     * @return true if the key wasn't already present
+     */
+    public boolean add(int key)
+    {
+        if (key == EMPTY)
+        {
+            boolean had = hasZeroKey;
+            hasZeroKey = true;
+            return !had;
+        }
+
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY)
+        {
+            if (keys[slot] == key)
+            {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        if (++assigned >= resizeAt)
+        {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the key was present
+     */
+    public boolean remove(int key)
+    {
+        if (key == EMPTY)
+        {
+            boolean had = hasZeroKey;
+            hasZeroKey = false;
+            return had;
+        }
+
+        int gap = slotOf(key);
+        if (gap < 0)
+        {
+            return false;
+        }
+
+        // Shift back any entry whose probe sequence passes through the freed slot
+        int slot = (gap + 1) & mask;
+        while (keys[slot] != EMPTY)
+        {
+            int ideal = hash(keys[slot]) & mask;
+            if (((slot - ideal) & mask) >= ((slot - gap) & mask))
+            {
+                keys[gap] = keys[slot];
+                gap = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        assigned--;
+        return true;
+    }
+
+    public void clear()
+    {
+        Arrays.fill(keys, EMPTY);
+        assigned = 0;
+        hasZeroKey = false;
+    }
+
+    private int slotOf(int key)
+    {
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY)
+        {
+            if (keys[slot] == key)
+            {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash(int newSize)
+    {
+        int[] oldKeys = keys;
+        allocate(newSize);
+
+        for (int key : oldKeys)
+        {
+            if (key != EMPTY)
+            {
+                int slot = hash(key) & mask;
+                while (keys[slot] != EMPTY)
+                {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+
+    private void allocate(int size)
+    {
+        keys = new int[size];
+        mask = size - 1;
+        resizeAt = (int) (size * LOAD_FACTOR);
+    }
+
+    private static int tableSize(int expectedSize)
+    {
+        int size = Integer.highestOneBit(Math.max((int) (expectedSize / LOAD_FACTOR), 4) - 1) << 1;
+        return Math.max(size, 4);
+    }
+
+    private static int hash(int key)
+    {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
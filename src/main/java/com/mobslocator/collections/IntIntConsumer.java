@@ -0,0 +1,10 @@
+package com.mobslocator.collections;
+
+/**
+ * Receives the entries of an int to int map without boxing.
+ */
+@FunctionalInterface
+public interface IntIntConsumer
+{
+    void accept(int key, int value);
+}
@@ -0,0 +1,223 @@
+package com.mobslocator.collections;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing int to int hash map with linear probing, storing keys and
+ * values in flat arrays so nothing is boxed.
+ * <p>
+ * Key 0 marks an empty slot in the table, so an entry for key 0 itself is kept
+ * on the side. Removal shifts following entries back instead of leaving
+ * tombstones, so lookups stay short however many entries come and go.
+ */
+public final class IntIntHashMap
+{
+    private static final int EMPTY = 0;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int assigned;
+    private int resizeAt;
+
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public IntIntHashMap()
+    {
+        this(16);
+    }
+
+    public IntIntHashMap(int expectedSize)
+    {
+        allocate(tableSize(expectedSize));
+    }
+
+    public int size()
+    {
+        return assigned + (hasZeroKey ? 1 : 0);
+    }
+
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    public boolean containsKey(int key)
+    {
+        if (key == EMPTY)
+        {
+            return hasZeroKey;
+        }
+        return slotOf(key) >= 0;
+    }
+
+    public int get(int key, int defaultValue)
+    {
+        if (key == EMPTY)
+        {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int slot = slotOf(key);
+        return slot >= 0 ? values[slot] : defaultValue;
+    }
+
+    public void put(int key, int value)
+    {
+        if (key == EMPTY)
+        {
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY)
+        {
+            if (keys[slot] == key)
+            {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++assigned >= resizeAt)
+        {
+            rehash(keys.length << 1);
+        }
+    }
+
+    /**
+     * Adds {@code delta} to the value for {@code key}, treating a missing key as 0.
+     *
+     * @return the new value
+     */
+    public int addTo(int key, int delta)
+    {
+        int value = get(key, 0) + delta;
+        put(key, value);
+        return value;
+    }
+
+    /**
+     * @return true if the key was present
+     */
+    public boolean remove(int key)
+    {
+        if (key == EMPTY)
+        {
+            boolean had = hasZeroKey;
+            hasZeroKey = false;
+            return had;
+        }
+
+        int gap = slotOf(key);
+        if (gap < 0)
+        {
+            return false;
+        }
+
+        // Shift back any entry whose probe sequence passes through the freed slot
+        int slot = (gap + 1) & mask;
+        while (keys[slot] != EMPTY)
+        {
+            int ideal = hash(keys[slot]) & mask;
+            if (((slot - ideal) & mask) >= ((slot - gap) & mask))
+            {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        assigned--;
+        return true;
+    }
+
+    public void clear()
+    {
+        Arrays.fill(keys, EMPTY);
+        assigned = 0;
+        hasZeroKey = false;
+    }
+
+    /**
+     * Visits every entry in no particular order. Does not allocate.
+     */
+    public void forEach(IntIntConsumer consumer)
+    {
+        if (hasZeroKey)
+        {
+            consumer.accept(EMPTY, zeroValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++)
+        {
+            if (keys[slot] != EMPTY)
+            {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    private int slotOf(int key)
+    {
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY)
+        {
+            if (keys[slot] == key)
+            {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash(int newSize)
+    {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newSize);
+
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            int key = oldKeys[i];
+            if (key != EMPTY)
+            {
+                int slot = hash(key) & mask;
+                while (keys[slot] != EMPTY)
+                {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int size)
+    {
+        keys = new int[size];
+        values = new int[size];
+        mask = size - 1;
+        resizeAt = (int) (size * LOAD_FACTOR);
+    }
+
+    private static int tableSize(int expectedSize)
+    {
+        int size = Integer.highestOneBit(Math.max((int) (expectedSize / LOAD_FACTOR), 4) - 1) << 1;
+        return Math.max(size, 4);
+    }
+
+    private static int hash(int key)
+    {
+        // Spread packed coordinates and small indices across the table
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
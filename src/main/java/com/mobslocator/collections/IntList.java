@@ -0,0 +1,70 @@
+package com.mobslocator.collections;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints, used instead of {@code List<Integer>} wherever
+ * spawn coordinates are collected.
+ */
+public final class IntList
+{
+    private int[] values;
+    private int size;
+
+    public IntList()
+    {
+        this(16);
+    }
+
+    public IntList(int initialCapacity)
+    {
+        values = new int[Math.max(initialCapacity, 1)];
+    }
+
+    public void add(int value)
+    {
+        if (size == values.length)
+        {
+            values = Arrays.copyOf(values, size << 1);
+        }
+        values[size++] = value;
+    }
+
+    public int get(int index)
+    {
+        if (index >= size)
+        {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return values[index];
+    }
+
+    public void set(int index, int value)
+    {
+        if (index >= size)
+        {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        values[index] = value;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public void clear()
+    {
+        size = 0;
+    }
+
+    public int[] toArray()
+    {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,189 @@
+package com.mobslocator;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import net.runelite.api.NPC;
+import net.runelite.api.coords.WorldPoint;
+
+/**
+ * Stand-ins for RuneLite interfaces built from dynamic proxies, so tests don't need a
+ * mocking library, plus access to the private fields Guice would otherwise inject.
+ */
+final class Fakes
+{
+    /**
+     * Computes a faked method's return value from its arguments.
+     */
+    @FunctionalInterface
+    interface Answer
+    {
+        Object answer(Object[] args);
+    }
+
+    private Fakes()
+    {
+    }
+
+    /**
+     * A fake of an interface whose methods return the given values by method name, as
+     * alternating name and value arguments. A value may be an {@link Answer}. Any other
+     * method returns null, zero or false.
+     */
+    static <T> T fake(Class<T> type, Object... namesAndValues)
+    {
+        Map<String, Object> values = new HashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2)
+        {
+            values.put((String) namesAndValues[i], namesAndValues[i + 1]);
+        }
+
+        Object fake = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) ->
+        {
+            switch (method.getName())
+            {
+                case "equals":
+                    if (method.getParameterCount() == 1)
+                    {
+                        return proxy == args[0];
+                    }
+                    break;
+                case "hashCode":
+                    if (method.getParameterCount() == 0)
+                    {
+                        return System.identityHashCode(proxy);
+                    }
+                    break;
+                case "toString":
+                    if (method.getParameterCount() == 0)
+                    {
+                        return "Fake " + type.getSimpleName();
+                    }
+                    break;
+            }
+
+            Object value = values.get(method.getName());
+            if (value instanceof Answer)
+            {
+                return ((Answer) value).answer(args);
+            }
+            return value != null ? value : defaultValue(method.getReturnType());
+        });
+        return type.cast(fake);
+    }
+
+    /**
+     * An NPC standing still at a world location, without a model on screen.
+     */
+    static NPC npc(int index, int id, String name, WorldPoint location)
+    {
+        return fake(NPC.class, "getIndex", index, "getId", id, "getName", name, "getWorldLocation", location);
+    }
+
+    static void set(Object target, String fieldName, Object value)
+    {
+        try
+        {
+            field(target.getClass(), fieldName).set(target, value);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new AssertionError(e);
+        }
+    }
+
+    static Object get(Object target, String fieldName)
+    {
+        try
+        {
+            return field(target.getClass(), fieldName).get(target);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Sets a static field, e.g. to reset {@link MobSpawnData} between tests.
+     */
+    static void setStatic(Class<?> type, String fieldName, Object value)
+    {
+        try
+        {
+            field(type, fieldName).set(null, value);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new AssertionError(e);
+        }
+    }
+
+    static Object getStatic(Class<?> type, String fieldName)
+    {
+        try
+        {
+            return field(type, fieldName).get(null);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static Field field(Class<?> type, String fieldName) throws NoSuchFieldException
+    {
+        for (Class<?> c = type; c != null; c = c.getSuperclass())
+        {
+            try
+            {
+                Field field = c.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                return field;
+            }
+            catch (NoSuchFieldException e)
+            {
+                // Look in the superclass
+            }
+        }
+        throw new NoSuchFieldException(fieldName);
+    }
+
+    private static Object defaultValue(Class<?> type)
+    {
+        if (!type.isPrimitive() || type == void.class)
+        {
+            return null;
+        }
+        if (type == boolean.class)
+        {
+            return false;
+        }
+        if (type == char.class)
+        {
+            return '\0';
+        }
+        if (type == long.class)
+        {
+            return 0L;
+        }
+        if (type == float.class)
+        {
+            return 0f;
+        }
+        if (type == double.class)
+        {
+            return 0d;
+        }
+        if (type == byte.class)
+        {
+            return (byte) 0;
+        }
+        if (type == short.class)
+        {
+            return (short) 0;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,49 @@
+package com.mobslocator;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.ref.Reference;
+import java.util.function.Supplier;
+
+/**
+ * Heap measurements for the footprint tests.
+ */
+final class Heap
+{
+    private Heap()
+    {
+    }
+
+    /**
+     * Heap still in use after a GC while the supplied structure is reachable, less what was in use before.
+     */
+    static long retainedBytes(Supplier<Object> build)
+    {
+        long before = usedAfterGc();
+        Object retained = build.get();
+        long after = usedAfterGc();
+        Reference.reachabilityFence(retained);
+        return after - before;
+    }
+
+    static long usedAfterGc()
+    {
+        // The serial collector only compacts away all dead objects on every fourth full GC
+        for (int i = 0; i < 4; i++)
+        {
+            System.gc();
+        }
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+        {
+            MemoryUsage afterGc = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+            if (afterGc != null)
+            {
+                used += afterGc.getUsed();
+            }
+        }
+        return used;
+    }
+}
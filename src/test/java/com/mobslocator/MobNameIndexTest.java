@@ -0,0 +1,88 @@
+package com.mobslocator;
+
+import com.mobslocator.collections.IntList;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class MobNameIndexTest
+{
+    // Few letters, so grams repeat across names and longer queries have trigrams that aren't adjacent
+    private static final String ALPHABET = "abgilnort ";
+    private static final int ROUNDS = 50;
+    private static final int QUERIES = 400;
+
+    @Test
+    public void testMatchesBruteForceContains()
+    {
+        Random random = new Random(3);
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            String[] names = new String[random.nextInt(300)];
+            for (int i = 0; i < names.length; i++)
+            {
+                names[i] = randomString(random, 1 + random.nextInt(20));
+            }
+            MobNameIndex index = new MobNameIndex(names);
+
+            for (int q = 0; q < QUERIES; q++)
+            {
+                String query;
+                if (names.length > 0 && random.nextBoolean())
+                {
+                    // A piece of a real name, so most of these match something
+                    String name = names[random.nextInt(names.length)];
+                    int start = random.nextInt(name.length());
+                    query = name.substring(start, start + 1 + random.nextInt(name.length() - start));
+                }
+                else
+                {
+                    query = randomString(random, 1 + random.nextInt(8));
+                }
+                assertArrayEquals("round " + round + ", query '" + query + "'", bruteForce(names, query), index.find(query));
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyQuery()
+    {
+        MobNameIndex index = new MobNameIndex(new String[]{"goblin", "hill giant"});
+        assertEquals(0, index.find("").length);
+    }
+
+    @Test
+    public void testRepeatedGramsInOneName()
+    {
+        MobNameIndex index = new MobNameIndex(new String[]{"aaaa", "aa", "a a a"});
+        assertArrayEquals(new int[]{0, 1, 2}, index.find("a"));
+        assertArrayEquals(new int[]{0, 1}, index.find("aa"));
+        assertArrayEquals(new int[]{0}, index.find("aaaa"));
+        // Every trigram of the query is in "a a a", but not as one run
+        assertArrayEquals(new int[0], index.find("a a a a"));
+    }
+
+    private static int[] bruteForce(String[] names, String query)
+    {
+        IntList matches = new IntList();
+        for (int id = 0; id < names.length; id++)
+        {
+            if (names[id].contains(query))
+            {
+                matches.add(id);
+            }
+        }
+        return matches.toArray();
+    }
+
+    private static String randomString(Random random, int length)
+    {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++)
+        {
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,129 @@
+package com.mobslocator;
+
+import com.mobslocator.collections.IntIntHashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import net.runelite.api.Client;
+import net.runelite.api.NPC;
+import net.runelite.api.NPCComposition;
+import net.runelite.api.Player;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.NpcChanged;
+import net.runelite.api.events.NpcSpawned;
+import net.runelite.client.events.ConfigChanged;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * An NPC transforming into another composition can start or stop matching the search
+ * without spawning or despawning, and the respawn timers have to follow it as they do
+ * on a rescan.
+ */
+public class NpcTransformTest
+{
+    private static final WorldPoint PLAYER = new WorldPoint(3220, 3220, 0);
+    private static final int GOBLIN = 100;
+    private static final int GIANT_RAT = 200;
+
+    private final List<NPC> scene = new ArrayList<>();
+    private MobsLocatorPlugin plugin;
+
+    @Before
+    public void before()
+    {
+        Fakes.setStatic(MobSpawnData.class, "snapshot", null);
+
+        Player player = Fakes.fake(Player.class, "getWorldLocation", PLAYER);
+        Client client = Fakes.fake(Client.class, "getNpcs", (Fakes.Answer) args -> scene, "getLocalPlayer", player);
+        MobsLocatorConfig config = Fakes.fake(MobsLocatorConfig.class, "searchedMob", "goblin");
+
+        plugin = new MobsLocatorPlugin();
+        Fakes.set(plugin, "client", client);
+        Fakes.set(plugin, "config", config);
+        // Resolving the search needs the spawn data, which isn't loaded here; tracking only needs the query
+        Fakes.set(plugin, "executor", Fakes.fake(ScheduledExecutorService.class));
+        rescan();
+    }
+
+    @After
+    public void after()
+    {
+        Fakes.setStatic(MobSpawnData.class, "snapshot", null);
+    }
+
+    @Test
+    public void testTransformOutOfSearchForgetsSpawnTile()
+    {
+        Transforming npc = new Transforming(5, GOBLIN, "Goblin", new WorldPoint(3222, 3222, 0));
+        plugin.onNpcSpawned(new NpcSpawned(npc.npc));
+        assertEquals(PackedCoords.pack(3222, 3222, 0), spawnTiles().get(5, 0));
+
+        npc.transform(GIANT_RAT, "Giant rat");
+        assertEquals(0, plugin.getSnapshot().size());
+        assertFalse(spawnTiles().containsKey(5));
+
+        // Another goblin under the same index, already in the scene, stands in with its own tile
+        scene.add(Fakes.npc(5, GOBLIN, "Goblin", new WorldPoint(3230, 3210, 0)));
+        rescan();
+        assertEquals(1, plugin.getSnapshot().size());
+        assertEquals(PackedCoords.pack(3230, 3210, 0), spawnTiles().get(5, 0));
+    }
+
+    @Test
+    public void testTransformIntoSearchFollowsSpawnTile()
+    {
+        Transforming npc = new Transforming(7, GIANT_RAT, "Giant rat", new WorldPoint(3215, 3225, 0));
+        plugin.onNpcSpawned(new NpcSpawned(npc.npc));
+        assertFalse(spawnTiles().containsKey(7));
+
+        npc.transform(GOBLIN, "Goblin");
+        assertEquals(1, plugin.getSnapshot().size());
+        assertEquals(PackedCoords.pack(3215, 3225, 0), spawnTiles().get(7, 0));
+    }
+
+    private IntIntHashMap spawnTiles()
+    {
+        return (IntIntHashMap) Fakes.get(Fakes.get(plugin, "respawnTimers"), "spawnTiles");
+    }
+
+    private void rescan()
+    {
+        ConfigChanged configChanged = new ConfigChanged();
+        configChanged.setGroup("mobslocator");
+        configChanged.setKey("searchedMob");
+        plugin.onConfigChanged(configChanged);
+        plugin.onGameTick(new GameTick());
+    }
+
+    /**
+     * An NPC whose composition id and name change in place, as the client's do.
+     */
+    private final class Transforming
+    {
+        final NPC npc;
+        private int id;
+        private String name;
+
+        Transforming(int index, int id, String name, WorldPoint location)
+        {
+            this.id = id;
+            this.name = name;
+            npc = Fakes.fake(NPC.class, "getIndex", index, "getId", (Fakes.Answer) args -> this.id,
+                "getName", (Fakes.Answer) args -> this.name, "getWorldLocation", location);
+        }
+
+        void transform(int newId, String newName)
+        {
+            NPCComposition old = Fakes.fake(NPCComposition.class, "getId", id, "getName", name);
+            id = newId;
+            name = newName;
+            plugin.onNpcChanged(new NpcChanged(npc, old));
+            plugin.onGameTick(new GameTick());
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.mobslocator;
+
+import com.google.gson.Gson;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import net.runelite.api.Client;
+import net.runelite.api.NPC;
+import net.runelite.api.Player;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.client.ui.overlay.components.PanelComponent;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Between game ticks {@link MobsLocatorOverlay} draws the same panels every frame, so
+ * a steady-state frame should allocate nothing beyond what RuneLite's own components
+ * allocate to lay themselves out.
+ */
+public class OverlayAllocationTest
+{
+    private static final WorldPoint PLAYER = new WorldPoint(3220, 3220, 0);
+    private static final int NPCS = 10;
+    private static final int WARMUP_FRAMES = 20_000;
+    private static final int FRAMES = 5_000;
+    // Covers the boxed arguments of the fake client's getWidget(595, 25)
+    private static final long OWN_BYTES_PER_FRAME = 64;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private com.sun.management.ThreadMXBean threads;
+    private MobsLocatorPlugin plugin;
+    private MobsLocatorOverlay overlay;
+    private Graphics2D graphics;
+    private TrackingSnapshot snapshot;
+    private TrackingSnapshot nextSnapshot;
+
+    @Before
+    public void before()
+    {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        Fakes.setStatic(MobSpawnData.class, "snapshot", null);
+        Map<String, int[]> observed = new HashMap<>();
+        observed.put("allocation test goblin", new int[]{PackedCoords.pack(3222, 3222, 0), PackedCoords.pack(3400, 3100, 0)});
+        MobSpawnData.initialize(new Gson(), observed, new File(folder.getRoot(), "spawn-locations.bin"));
+
+        plugin = new MobsLocatorPlugin();
+        SearchSession search = (SearchSession) Fakes.get(plugin, "searchSession");
+        search.update("allocation test goblin");
+        search.resolve();
+
+        // Two ticks' worth of the same NPCs, one tile apart
+        snapshot = capture(0);
+        nextSnapshot = capture(1);
+        Fakes.set(plugin, "snapshot", snapshot);
+
+        Player player = Fakes.fake(Player.class, "getWorldLocation", PLAYER);
+        Client client = Fakes.fake(Client.class, "getLocalPlayer", player, "getCanvasWidth", 765, "getCanvasHeight", 503);
+        MobsLocatorConfig config = Fakes.fake(MobsLocatorConfig.class, "showSearchResults", true,
+            "backgroundColor", Color.BLACK, "hullColor", Color.MAGENTA);
+        overlay = new MobsLocatorOverlay(client, plugin, config);
+        graphics = new BufferedImage(800, 600, BufferedImage.TYPE_INT_ARGB).createGraphics();
+    }
+
+    @After
+    public void after()
+    {
+        if (graphics != null)
+        {
+            graphics.dispose();
+        }
+        Fakes.setStatic(MobSpawnData.class, "snapshot", null);
+    }
+
+    @Test
+    public void testSteadyStateFrameAllocatesOnlyInPanelComponents()
+    {
+        PanelComponent leftPanel = (PanelComponent) Fakes.get(overlay, "leftPanel");
+        PanelComponent rightPanel = (PanelComponent) Fakes.get(overlay, "rightPanel");
+        overlay.render(graphics);
+
+        long frame = allocatedPerFrame(() -> overlay.render(graphics));
+        // What drawing the two unchanged panels costs on its own, whoever draws them
+        long panels = allocatedPerFrame(() ->
+        {
+            leftPanel.render(graphics);
+            rightPanel.render(graphics);
+        });
+
+        System.out.println("Steady-state frame: " + frame + " bytes, of which panel components: " + panels + " bytes");
+        assertTrue("Overlay allocated " + (frame - panels) + " bytes per frame of its own",
+            frame - panels <= OWN_BYTES_PER_FRAME);
+    }
+
+    @Test
+    public void testNewTickRebuildsPanel()
+    {
+        // The measurement isn't blind: a frame after each tick rebuilds the nearby panel's text
+        long steady = allocatedPerFrame(() -> overlay.render(graphics));
+        long ticking = allocatedPerFrame(() ->
+        {
+            TrackingSnapshot current = plugin.getSnapshot();
+            Fakes.set(plugin, "snapshot", current == snapshot ? nextSnapshot : snapshot);
+            overlay.render(graphics);
+        });
+
+        System.out.println("Frame after a tick: " + ticking + " bytes, steady-state frame: " + steady + " bytes");
+        assertTrue(ticking > steady + OWN_BYTES_PER_FRAME);
+    }
+
+    private long allocatedPerFrame(Runnable frame)
+    {
+        long thread = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP_FRAMES; i++)
+        {
+            frame.run();
+        }
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < FRAMES; i++)
+        {
+            frame.run();
+        }
+        return (threads.getThreadAllocatedBytes(thread) - before) / FRAMES;
+    }
+
+    private static TrackingSnapshot capture(int offset)
+    {
+        TrackedNpcs tracked = new TrackedNpcs();
+        NpcDistanceIndex positions = new NpcDistanceIndex();
+        positions.setOrigin(PLAYER);
+        for (int i = 0; i < NPCS; i++)
+        {
+            // No convex hull, as for NPCs off screen, so the frame is just the hull cache and the panels
+            NPC npc = Fakes.npc(i, 100, "Allocation test goblin", new WorldPoint(3222 + i + offset, 3222, 0));
+            tracked.add(npc);
+            positions.put(i, PackedCoords.pack(npc.getWorldLocation()));
+        }
+        return TrackingSnapshot.capture(tracked, positions, PLAYER, new int[0]);
+    }
+}
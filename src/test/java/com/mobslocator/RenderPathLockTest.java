@@ -0,0 +1,132 @@
+package com.mobslocator;
+
+import com.google.gson.Gson;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import net.runelite.api.Client;
+import net.runelite.api.NPC;
+import net.runelite.api.Player;
+import net.runelite.api.coords.WorldPoint;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The overlays run on the render thread while the spawn data loads in the background,
+ * so nothing they call may wait on the lock {@link MobSpawnData#initialize} holds.
+ */
+public class RenderPathLockTest
+{
+    private static final WorldPoint PLAYER = new WorldPoint(3220, 3220, 0);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ExecutorService renderThread = Executors.newSingleThreadExecutor();
+
+    @Before
+    public void before()
+    {
+        Fakes.setStatic(MobSpawnData.class, "snapshot", null);
+    }
+
+    @After
+    public void after()
+    {
+        renderThread.shutdownNow();
+        Fakes.setStatic(MobSpawnData.class, "snapshot", null);
+    }
+
+    @Test
+    public void testRenderPathDoesNotTakeInitLock() throws Exception
+    {
+        Map<String, int[]> observed = new HashMap<>();
+        observed.put("lock test goblin", new int[]{PackedCoords.pack(3222, 3222, 0), PackedCoords.pack(3224, 3221, 0)});
+        observed.put("lock test rat", new int[]{PackedCoords.pack(3200, 3200, 0)});
+        MobSpawnData.initialize(new Gson(), observed, new File(folder.getRoot(), "spawn-locations.bin"));
+
+        MobsLocatorPlugin plugin = new MobsLocatorPlugin();
+        SearchSession search = (SearchSession) Fakes.get(plugin, "searchSession");
+        search.update("lock test goblin");
+        search.resolve();
+
+        NPC goblin = Fakes.npc(1, 100, "Lock test goblin", new WorldPoint(3222, 3222, 0));
+        TrackedNpcs tracked = new TrackedNpcs();
+        tracked.add(goblin);
+        NpcDistanceIndex positions = new NpcDistanceIndex();
+        positions.setOrigin(PLAYER);
+        positions.put(1, PackedCoords.pack(goblin.getWorldLocation()));
+        Fakes.set(plugin, "snapshot", TrackingSnapshot.capture(tracked, positions, PLAYER, new int[]{5}));
+
+        Player player = Fakes.fake(Player.class, "getWorldLocation", PLAYER);
+        Client client = Fakes.fake(Client.class, "getLocalPlayer", player, "getCanvasWidth", 765, "getCanvasHeight", 503);
+        MobsLocatorConfig config = Fakes.fake(MobsLocatorConfig.class, "showSearchResults", true,
+            "backgroundColor", Color.BLACK, "hullColor", Color.MAGENTA);
+        MobsLocatorOverlay overlay = new MobsLocatorOverlay(client, plugin, config);
+        Graphics2D graphics = new BufferedImage(800, 600, BufferedImage.TYPE_INT_ARGB).createGraphics();
+
+        // Stand in for a load in progress
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread loader = new Thread(() ->
+        {
+            synchronized (MobSpawnData.class)
+            {
+                locked.countDown();
+                try
+                {
+                    release.await();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        loader.start();
+        locked.await();
+
+        try
+        {
+            Future<?> frame = renderThread.submit(() ->
+            {
+                assertTrue(MobSpawnData.isLoaded());
+                assertFalse(MobSpawnData.getSpawnLocations(MobQuery.parse("lock test")).isEmpty());
+                MobSpawnData.getAreaName(PackedCoords.pack(PLAYER));
+                // A new search publishes its placeholder and resolves, as the config and executor threads would
+                search.update("lock test rat");
+                search.resolve();
+                assertTrue(plugin.getSearch().isLoaded());
+                MobSpawnData.saveCache();
+                overlay.render(graphics);
+                overlay.render(graphics);
+            });
+            frame.get(10, TimeUnit.SECONDS);
+        }
+        catch (TimeoutException e)
+        {
+            fail("The render path waited on the spawn data init lock");
+        }
+        finally
+        {
+            release.countDown();
+            loader.join();
+            graphics.dispose();
+        }
+    }
+}
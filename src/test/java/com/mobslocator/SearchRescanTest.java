@@ -0,0 +1,126 @@
+package com.mobslocator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.runelite.api.Client;
+import net.runelite.api.NPC;
+import net.runelite.api.Player;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.events.GameTick;
+import net.runelite.client.events.ConfigChanged;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A search change is applied by one scan of the scene on the next game tick; the
+ * ticks in between only follow the NPCs already tracked.
+ */
+public class SearchRescanTest
+{
+    private static final int TICKS = 20;
+    private static final WorldPoint PLAYER = new WorldPoint(3220, 3220, 0);
+
+    private final AtomicInteger npcScans = new AtomicInteger();
+    private String searchedMob = "goblin";
+    private MobsLocatorPlugin plugin;
+
+    @Before
+    public void before()
+    {
+        Fakes.setStatic(MobSpawnData.class, "snapshot", null);
+
+        List<NPC> npcs = Arrays.asList(
+            Fakes.npc(1, 100, "Goblin", new WorldPoint(3222, 3222, 0)),
+            Fakes.npc(2, 101, "Goblin", new WorldPoint(3225, 3219, 0)),
+            Fakes.npc(3, 200, "Giant rat", new WorldPoint(3210, 3215, 0)));
+        Player player = Fakes.fake(Player.class, "getWorldLocation", PLAYER);
+        Client client = Fakes.fake(Client.class,
+            "getNpcs", (Fakes.Answer) args ->
+            {
+                npcScans.incrementAndGet();
+                return npcs;
+            },
+            "getLocalPlayer", player);
+        MobsLocatorConfig config = Fakes.fake(MobsLocatorConfig.class, "searchedMob", (Fakes.Answer) args -> searchedMob);
+
+        plugin = new MobsLocatorPlugin();
+        Fakes.set(plugin, "client", client);
+        Fakes.set(plugin, "config", config);
+        // Resolving the search needs the spawn data, which isn't loaded here; tracking only needs the query
+        Fakes.set(plugin, "executor", Fakes.fake(ScheduledExecutorService.class));
+    }
+
+    @After
+    public void after()
+    {
+        Fakes.setStatic(MobSpawnData.class, "snapshot", null);
+    }
+
+    @Test
+    public void testRescansOncePerSearchChange()
+    {
+        ticks();
+        assertEquals(0, npcScans.get());
+        assertEquals(0, plugin.getSnapshot().size());
+
+        changeSearch("goblin");
+        ticks();
+        assertEquals(1, npcScans.get());
+        assertEquals(2, plugin.getSnapshot().size());
+
+        changeSearch("giant rat");
+        ticks();
+        assertEquals(2, npcScans.get());
+        assertEquals(1, plugin.getSnapshot().size());
+        assertEquals(3, plugin.getSnapshot().getNpc(0).getIndex());
+    }
+
+    @Test
+    public void testChangesBetweenTicksRescanOnce()
+    {
+        changeSearch("giant rat");
+        changeSearch("goblin");
+        ticks();
+        assertEquals(1, npcScans.get());
+        assertEquals(2, plugin.getSnapshot().size());
+    }
+
+    @Test
+    public void testOtherConfigChangesDontRescan()
+    {
+        ConfigChanged otherKey = new ConfigChanged();
+        otherKey.setGroup("mobslocator");
+        otherKey.setKey("showSearchResults");
+        plugin.onConfigChanged(otherKey);
+
+        ConfigChanged otherGroup = new ConfigChanged();
+        otherGroup.setGroup("npcindicators");
+        otherGroup.setKey("searchedMob");
+        plugin.onConfigChanged(otherGroup);
+
+        ticks();
+        assertEquals(0, npcScans.get());
+    }
+
+    private void changeSearch(String search)
+    {
+        searchedMob = search;
+        ConfigChanged configChanged = new ConfigChanged();
+        configChanged.setGroup("mobslocator");
+        configChanged.setKey("searchedMob");
+        configChanged.setNewValue(search);
+        plugin.onConfigChanged(configChanged);
+    }
+
+    private void ticks()
+    {
+        for (int i = 0; i < TICKS; i++)
+        {
+            plugin.onGameTick(new GameTick());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.mobslocator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SpawnClustererTest
+{
+    private static final int ROUNDS = 500;
+
+    @Test
+    public void testMatchesBruteForceSingleLinkage()
+    {
+        Random random = new Random(9);
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            int distance = 2 + random.nextInt(20);
+            int[] spawns = randomSpawns(random, distance);
+
+            String message = "round " + round + ", distance " + distance;
+            int[][] expected = bruteForce(spawns, distance);
+            assertArrayEquals(message, expected, SpawnClusterer.cluster(spawns, distance));
+
+            // The clusters and their order don't depend on the order spawns come in
+            shuffle(spawns, random);
+            assertArrayEquals(message + ", shuffled", expected, SpawnClusterer.cluster(spawns, distance));
+        }
+    }
+
+    @Test
+    public void testChainsAcrossCells()
+    {
+        // Each step is exactly the linking distance, so the chain crosses a cell boundary every time
+        int[] spawns = new int[10];
+        for (int i = 0; i < spawns.length; i++)
+        {
+            spawns[i] = PackedCoords.pack(3200 + i * 5, 3200 + (i % 2) * 5, 0);
+        }
+        assertEquals(1, SpawnClusterer.cluster(spawns, 5).length);
+        assertEquals(spawns.length, SpawnClusterer.cluster(spawns, 4).length);
+    }
+
+    @Test
+    public void testPlanesAreNotLinked()
+    {
+        int[] spawns = {PackedCoords.pack(3200, 3200, 0), PackedCoords.pack(3200, 3200, 1), PackedCoords.pack(3201, 3200, 3)};
+        int[][] clusters = SpawnClusterer.cluster(spawns, 10);
+        assertEquals(3, clusters.length);
+        assertEquals(0, PackedCoords.plane(clusters[0][0]));
+        assertEquals(3, PackedCoords.plane(clusters[2][0]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsDistanceBelowTwo()
+    {
+        SpawnClusterer.cluster(new int[]{PackedCoords.pack(3200, 3200, 0)}, 1);
+    }
+
+    /**
+     * Spawns scattered over an area a few cells wide, dense enough for both long
+     * chains and isolated spawns, with a few repeated tiles.
+     */
+    private static int[] randomSpawns(Random random, int distance)
+    {
+        int n = random.nextInt(200);
+        int extent = distance * (1 + random.nextInt(12));
+        int baseX = 3000 + random.nextInt(500);
+        int baseY = 3000 + random.nextInt(500);
+        int[] spawns = new int[n];
+        for (int i = 0; i < n; i++)
+        {
+            if (i > 0 && random.nextInt(20) == 0)
+            {
+                spawns[i] = spawns[random.nextInt(i)];
+                continue;
+            }
+            int plane = random.nextInt(4) == 0 ? random.nextInt(4) : 0;
+            spawns[i] = PackedCoords.pack(baseX + random.nextInt(extent), baseY + random.nextInt(extent), plane);
+        }
+        return spawns;
+    }
+
+    /**
+     * Single linkage by comparing every pair, ordered the way {@link SpawnClusterer}
+     * documents: spawns sorted by plane, x then y, and clusters by their first spawn.
+     */
+    private static int[][] bruteForce(int[] spawns, int distance)
+    {
+        Integer[] points = new Integer[spawns.length];
+        for (int i = 0; i < spawns.length; i++)
+        {
+            points[i] = spawns[i];
+        }
+        Arrays.sort(points, Comparator.<Integer>comparingInt(PackedCoords::plane)
+            .thenComparingInt(PackedCoords::x)
+            .thenComparingInt(PackedCoords::y));
+
+        int n = points.length;
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++)
+        {
+            parent[i] = i;
+        }
+        for (int i = 0; i < n; i++)
+        {
+            for (int j = i + 1; j < n; j++)
+            {
+                if (PackedCoords.plane(points[i]) == PackedCoords.plane(points[j])
+                    && Math.abs(PackedCoords.x(points[i]) - PackedCoords.x(points[j])) <= distance
+                    && Math.abs(PackedCoords.y(points[i]) - PackedCoords.y(points[j])) <= distance)
+                {
+                    parent[root(parent, j)] = root(parent, i);
+                }
+            }
+        }
+
+        int[] clusterOfRoot = new int[n];
+        Arrays.fill(clusterOfRoot, -1);
+        List<List<Integer>> clusters = new ArrayList<>();
+        for (int i = 0; i < n; i++)
+        {
+            int root = root(parent, i);
+            if (clusterOfRoot[root] < 0)
+            {
+                clusterOfRoot[root] = clusters.size();
+                clusters.add(new ArrayList<>());
+            }
+            clusters.get(clusterOfRoot[root]).add(points[i]);
+        }
+
+        int[][] result = new int[clusters.size()][];
+        for (int i = 0; i < result.length; i++)
+        {
+            result[i] = clusters.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return result;
+    }
+
+    private static int root(int[] parent, int node)
+    {
+        while (parent[node] != node)
+        {
+            node = parent[node];
+        }
+        return node;
+    }
+
+    private static void shuffle(int[] values, Random random)
+    {
+        for (int i = values.length - 1; i > 0; i--)
+        {
+            int j = random.nextInt(i + 1);
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+}
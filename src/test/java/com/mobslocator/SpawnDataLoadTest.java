@@ -0,0 +1,274 @@
+package com.mobslocator;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import net.runelite.api.coords.WorldPoint;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Loading the spawn data from the binary index, and streaming npc_spawns.json when
+ * there is no index, against parsing npc_spawns.json into a Gson tree as the plugin
+ * did at first. The repository doesn't ship npc_spawns.json, so everything is written
+ * from the same made-up dataset, at about its size.
+ */
+public class SpawnDataLoadTest
+{
+    private static final int MOBS = 3000;
+    private static final int SPAWNS = 150_000;
+    private static final int REGIONS = 300;
+    private static final int TIMED_RUNS = 5;
+    // The index and the arrays read from it take about 10 bytes a spawn, the JSON tree about 1 KB
+    private static final int MAX_INDEX_BYTES_PER_SPAWN = 40;
+    // Several times the loaded spawns, with room for the reader's buffers and the JVM's own classes
+    private static final int CHILD_HEAP_MB = 32;
+    private static final int OUT_OF_MEMORY = 3;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Map<String, int[]> spawnsByName = new LinkedHashMap<>();
+    private final List<RegionIndex.Region> regions = new ArrayList<>();
+    private byte[] json;
+    private byte[] index;
+
+    @Before
+    public void before() throws IOException
+    {
+        Random random = new Random(1);
+        Map<String, List<Integer>> building = new LinkedHashMap<>();
+        StringBuilder text = new StringBuilder("[");
+        for (int i = 0; i < SPAWNS; i++)
+        {
+            String name = "Mob " + random.nextInt(MOBS);
+            int x = 2400 + random.nextInt(1400);
+            int y = 2900 + random.nextInt(900);
+            int plane = random.nextInt(4) == 0 ? 1 : 0;
+            building.computeIfAbsent(name.toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(PackedCoords.pack(x, y, plane));
+            text.append(i > 0 ? "," : "")
+                .append("{\"id\":").append(1000 + i % 5000)
+                .append(",\"name\":\"").append(name)
+                .append("\",\"x\":").append(x)
+                .append(",\"y\":").append(y)
+                .append(",\"p\":").append(plane)
+                .append('}');
+        }
+        json = text.append(']').toString().getBytes(StandardCharsets.UTF_8);
+        for (Map.Entry<String, List<Integer>> entry : building.entrySet())
+        {
+            spawnsByName.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        StringBuilder regionText = new StringBuilder("[");
+        for (int i = 0; i < REGIONS; i++)
+        {
+            int x = 2400 + random.nextInt(1400);
+            int y = 2900 + random.nextInt(900);
+            RegionIndex.Region region = new RegionIndex.Region("Region " + i, x, y, x + 1 + random.nextInt(100), y + 1 + random.nextInt(100));
+            regions.add(region);
+            regionText.append(i > 0 ? "," : "")
+                .append("{\"name\":\"").append(region.name)
+                .append("\",\"bounds\":[[").append(region.minX).append(',').append(region.minY)
+                .append("],[").append(region.maxX).append(',').append(region.maxY)
+                .append("]]}");
+        }
+
+        // Written the way the buildSpawnIndex task writes the bundled one
+        File spawnFile = folder.newFile("npc_spawns.json");
+        Files.write(spawnFile.toPath(), json);
+        File regionFile = folder.newFile("regions.json");
+        Files.write(regionFile.toPath(), regionText.append(']').toString().getBytes(StandardCharsets.UTF_8));
+        File indexFile = new File(folder.getRoot(), "spawn-index/spawn_index.bin");
+        SpawnIndexWriter.main(new String[]{indexFile.getPath(), spawnFile.getPath(), regionFile.getPath()});
+        index = Files.readAllBytes(indexFile.toPath());
+    }
+
+    @Test
+    public void testIndexHasTheSpawnData()
+    {
+        List<RegionIndex.Region> loadedRegions = new ArrayList<>();
+        Map<String, int[]> loadedSpawns = new HashMap<>();
+        assertTrue(MobSpawnData.readSpawnIndex(ByteBuffer.wrap(index), loadedRegions, loadedSpawns));
+
+        assertEquals(spawnsByName.keySet(), loadedSpawns.keySet());
+        for (Map.Entry<String, int[]> entry : spawnsByName.entrySet())
+        {
+            assertArrayEquals(entry.getKey(), entry.getValue(), loadedSpawns.get(entry.getKey()));
+        }
+        assertEquals(REGIONS, loadedRegions.size());
+        for (int i = 0; i < REGIONS; i++)
+        {
+            RegionIndex.Region expected = regions.get(i);
+            RegionIndex.Region actual = loadedRegions.get(i);
+            assertEquals(expected.name, actual.name);
+            assertArrayEquals(new int[]{expected.minX, expected.minY, expected.maxX, expected.maxY},
+                new int[]{actual.minX, actual.minY, actual.maxX, actual.maxY});
+        }
+    }
+
+    @Test
+    public void testIndexWithOtherHeaderIsRejected()
+    {
+        byte[] otherVersion = index.clone();
+        otherVersion[7]++;
+        assertFalse(MobSpawnData.readSpawnIndex(ByteBuffer.wrap(otherVersion), new ArrayList<>(), new HashMap<>()));
+    }
+
+    @Test
+    public void testIndexLoadStaysSmall()
+    {
+        long treeNanos = Long.MAX_VALUE;
+        long indexNanos = Long.MAX_VALUE;
+        for (int run = 0; run < TIMED_RUNS; run++)
+        {
+            long start = System.nanoTime();
+            parseJsonTree();
+            treeNanos = Math.min(treeNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            readIndex();
+            indexNanos = Math.min(indexNanos, System.nanoTime() - start);
+        }
+
+        // Everything live at once while loading: the input and what was built from it
+        long treeBytes = Heap.retainedBytes(this::parseJsonTree);
+        long indexBytes = Heap.retainedBytes(() -> new Object[]{index.clone(), readIndex()});
+
+        // Only reported; SpawnDataStartupBenchmark times loading properly, and heap measurements
+        // shift with the JVM, so the bound only catches the index load building objects per spawn
+        System.out.printf("%d spawns: JSON tree %.1f ms, %d KB; index %.1f ms, %d KB%n", SPAWNS,
+            treeNanos / 1e6, treeBytes / 1024, indexNanos / 1e6, indexBytes / 1024);
+        assertTrue(indexBytes < (long) MAX_INDEX_BYTES_PER_SPAWN * SPAWNS);
+    }
+
+    @Test
+    public void testStreamedJsonHasTheSpawnData() throws IOException
+    {
+        Map<String, int[]> loadedSpawns = new HashMap<>();
+        MobSpawnData.readSpawnData(new Gson().newJsonReader(reader(new ByteArrayInputStream(json))), loadedSpawns);
+
+        assertEquals(spawnsByName.keySet(), loadedSpawns.keySet());
+        for (Map.Entry<String, int[]> entry : spawnsByName.entrySet())
+        {
+            assertArrayEquals(entry.getKey(), entry.getValue(), loadedSpawns.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void testStreamedJsonLoadsInCappedHeap() throws Exception
+    {
+        File file = new File(folder.getRoot(), "npc_spawns.json");
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process child = new ProcessBuilder(java, "-Xmx" + CHILD_HEAP_MB + "m",
+            "-cp", System.getProperty("java.class.path"), LoadInChildJvm.class.getName(), file.getPath())
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+        String peakKb = new String(child.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        assertTrue(child.waitFor(60, TimeUnit.SECONDS));
+
+        assertTrue("Streaming " + json.length / 1024 + " KB of JSON ran out of a " + CHILD_HEAP_MB + " MB heap",
+            child.exitValue() != OUT_OF_MEMORY);
+        assertEquals(0, child.exitValue());
+        System.out.printf("%d spawns, %d KB of JSON streamed with a %d MB heap: peak %s KB%n",
+            SPAWNS, json.length / 1024, CHILD_HEAP_MB, peakKb);
+    }
+
+    /**
+     * Streams a JSON file in a JVM with a capped heap, exiting with {@link #OUT_OF_MEMORY}
+     * if it doesn't fit, or printing the peak heap in KB (the sum of each pool's peak).
+     */
+    static final class LoadInChildJvm
+    {
+        public static void main(String[] args) throws IOException
+        {
+            Heap.usedAfterGc();
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            {
+                pool.resetPeakUsage();
+            }
+
+            Map<String, int[]> spawns = new HashMap<>();
+            try (Reader reader = reader(new FileInputStream(args[0])))
+            {
+                MobSpawnData.readSpawnData(new Gson().newJsonReader(reader), spawns);
+            }
+            catch (OutOfMemoryError e)
+            {
+                System.exit(OUT_OF_MEMORY);
+            }
+
+            long peak = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            {
+                if (pool.getType() == MemoryType.HEAP)
+                {
+                    peak += pool.getPeakUsage().getUsed();
+                }
+            }
+            System.out.println(peak / 1024);
+            // Keep the spawns reachable until the peak is read
+            spawns.clear();
+        }
+    }
+
+    private static Reader reader(InputStream in)
+    {
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The original startup: the whole file as a Gson tree, then a spawn object and
+     * {@link WorldPoint} per entry, by lowercase name.
+     */
+    private Object parseJsonTree()
+    {
+        JsonArray tree = new Gson().fromJson(reader(new ByteArrayInputStream(json)), JsonArray.class);
+        Map<String, List<Object[]>> spawns = new HashMap<>();
+        for (JsonElement element : tree)
+        {
+            JsonObject spawn = element.getAsJsonObject();
+            String name = spawn.get("name").getAsString();
+            WorldPoint point = new WorldPoint(spawn.get("x").getAsInt(), spawn.get("y").getAsInt(), spawn.get("p").getAsInt());
+            spawns.computeIfAbsent(name.toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(new Object[]{point, name});
+        }
+        return new Object[]{tree, spawns};
+    }
+
+    private Object readIndex()
+    {
+        Map<String, int[]> spawns = new HashMap<>();
+        MobSpawnData.readSpawnIndex(ByteBuffer.wrap(index), new ArrayList<>(), spawns);
+        return spawns;
+    }
+}
@@ -0,0 +1,131 @@
+package com.mobslocator;
+
+import com.google.gson.Gson;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import net.runelite.api.coords.WorldPoint;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Heap retained per spawn by the packed spawn storage, reported next to the boxed
+ * spawn and {@link WorldPoint} per entry that {@link MobSpawnData} used to keep. The
+ * repository doesn't ship npc_spawns.json, so the dataset is made up, at about its size.
+ * <p>
+ * Heap measurements shift with the JVM and whatever else it is doing, so the bounds are
+ * loose enough to only catch going back to an object per spawn.
+ */
+public class SpawnFootprintTest
+{
+    private static final int MOBS = 3000;
+    private static final int SPAWNS_PER_MOB = 60;
+    // About 5 bytes a spawn packed and 9 loaded, against over 50 boxed
+    private static final int MAX_PACKED_BYTES_PER_SPAWN = 16;
+    private static final int MAX_LOADED_BYTES_PER_SPAWN = 32;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Map<String, int[]> packed;
+    private int spawnCount;
+
+    @Before
+    public void before()
+    {
+        Fakes.setStatic(MobSpawnData.class, "snapshot", null);
+
+        Random random = new Random(8);
+        packed = new HashMap<>();
+        for (int mob = 0; mob < MOBS; mob++)
+        {
+            int[] spawns = new int[1 + random.nextInt(SPAWNS_PER_MOB * 2)];
+            for (int i = 0; i < spawns.length; i++)
+            {
+                spawns[i] = PackedCoords.pack(2400 + random.nextInt(1400), 2900 + random.nextInt(900), random.nextInt(4) == 0 ? 1 : 0);
+            }
+            packed.put("mob " + mob, spawns);
+            spawnCount += spawns.length;
+        }
+    }
+
+    @After
+    public void after()
+    {
+        Fakes.setStatic(MobSpawnData.class, "snapshot", null);
+    }
+
+    @Test
+    public void testPackedSpawnsStaySmall()
+    {
+        long boxedBytes = Heap.retainedBytes(() ->
+        {
+            // The layout before spawns were packed: a list of spawn objects per mob, each with its own point
+            Map<String, List<BoxedSpawn>> boxed = new HashMap<>();
+            for (Map.Entry<String, int[]> entry : packed.entrySet())
+            {
+                List<BoxedSpawn> spawns = new ArrayList<>();
+                for (int spawn : entry.getValue())
+                {
+                    spawns.add(new BoxedSpawn(PackedCoords.toWorldPoint(spawn), entry.getKey()));
+                }
+                boxed.put(entry.getKey(), spawns);
+            }
+            return boxed;
+        });
+        long packedBytes = Heap.retainedBytes(() ->
+        {
+            Map<String, int[]> copy = new HashMap<>();
+            for (Map.Entry<String, int[]> entry : packed.entrySet())
+            {
+                copy.put(entry.getKey(), entry.getValue().clone());
+            }
+            return copy;
+        });
+
+        double boxedPerSpawn = (double) boxedBytes / spawnCount;
+        double packedPerSpawn = (double) packedBytes / spawnCount;
+        System.out.printf("%d spawns: %.1f bytes per spawn boxed, %.1f packed%n", spawnCount, boxedPerSpawn, packedPerSpawn);
+        // An int each, plus the map entry and array header of every mob spread over its spawns
+        assertTrue(packedPerSpawn < MAX_PACKED_BYTES_PER_SPAWN);
+    }
+
+    @Test
+    public void testLoadedSpawnDataPerSpawn()
+    {
+        File cacheFile = new File(folder.getRoot(), "spawn-locations.bin");
+        // Load once first, so classes and resources read only on the first load don't count
+        MobSpawnData.initialize(new Gson(), packed, cacheFile);
+        Fakes.setStatic(MobSpawnData.class, "snapshot", null);
+
+        long loadedBytes = Heap.retainedBytes(() ->
+        {
+            MobSpawnData.initialize(new Gson(), packed, cacheFile);
+            return Fakes.getStatic(MobSpawnData.class, "snapshot");
+        });
+
+        // Everything loaded up front: the packed spawns, the name index over them and the regions
+        double perSpawn = (double) loadedBytes / spawnCount;
+        System.out.printf("%d spawns loaded: %.1f bytes per spawn%n", spawnCount, perSpawn);
+        assertTrue(perSpawn < MAX_LOADED_BYTES_PER_SPAWN);
+    }
+
+    private static final class BoxedSpawn
+    {
+        final WorldPoint worldPoint;
+        final String name;
+
+        BoxedSpawn(WorldPoint worldPoint, String name)
+        {
+            this.worldPoint = worldPoint;
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.mobslocator;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.runelite.api.coords.WorldPoint;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpawnLocationCacheTest
+{
+    private static final byte[] KEY_A = key(1);
+    private static final byte[] KEY_B = key(2);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File cacheFile;
+    private final Map<String, List<MobSpawnData.SpawnLocation>> locations = new HashMap<>();
+    private final Map<String, int[]> spawns = new HashMap<>();
+
+    @Before
+    public void before()
+    {
+        cacheFile = new File(folder.getRoot(), "spawn-locations.bin");
+        locations.put("goblin", Arrays.asList(
+            new MobSpawnData.SpawnLocation("Lumbridge", 12, new WorldPoint(3245, 3245, 0), false),
+            new MobSpawnData.SpawnLocation("Goblin Village", 30, new WorldPoint(2956, 3505, 0), false)));
+        locations.put("hill giant", Arrays.asList(
+            new MobSpawnData.SpawnLocation("Edgeville Dungeon", 18, new WorldPoint(3117, 9846, 0), true)));
+        spawns.put("goblin", new int[]{PackedCoords.pack(3245, 3245, 0), PackedCoords.pack(2956, 3505, 0)});
+        spawns.put("hill giant", new int[]{PackedCoords.pack(3117, 9846, 0)});
+    }
+
+    @Test
+    public void testRoundTrip()
+    {
+        save(KEY_A);
+
+        Map<String, List<MobSpawnData.SpawnLocation>> loaded = load(KEY_A);
+        assertEquals(locations.keySet(), loaded.keySet());
+        for (Map.Entry<String, List<MobSpawnData.SpawnLocation>> entry : locations.entrySet())
+        {
+            List<MobSpawnData.SpawnLocation> expected = entry.getValue();
+            List<MobSpawnData.SpawnLocation> actual = loaded.get(entry.getKey());
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++)
+            {
+                assertEquals(expected.get(i).getAreaName(), actual.get(i).getAreaName());
+                assertEquals(expected.get(i).getCount(), actual.get(i).getCount());
+                assertEquals(expected.get(i).getApproximateCenter(), actual.get(i).getApproximateCenter());
+                assertEquals(expected.get(i).isMembers(), actual.get(i).isMembers());
+            }
+        }
+    }
+
+    @Test
+    public void testOtherKeyIsIgnored()
+    {
+        save(KEY_A);
+
+        assertTrue(load(KEY_B).isEmpty());
+        // Ignoring the file doesn't keep it from being replaced
+        save(KEY_B);
+        assertEquals(locations.keySet(), load(KEY_B).keySet());
+        assertTrue(load(KEY_A).isEmpty());
+    }
+
+    @Test
+    public void testSaveReplacesLoadedFile()
+    {
+        save(KEY_A);
+        assertEquals(2, load(KEY_A).size());
+
+        locations.remove("goblin");
+        save(KEY_A);
+        assertEquals(1, load(KEY_A).size());
+    }
+
+    @Test
+    public void testChangedSpawnsOnlyDropTheirMob()
+    {
+        save(KEY_A);
+
+        // A spawn learned in play changes one mob's clusters, but not the other's
+        spawns.put("goblin", new int[]{PackedCoords.pack(3245, 3245, 0), PackedCoords.pack(2956, 3505, 0), PackedCoords.pack(3250, 3250, 0)});
+        Map<String, List<MobSpawnData.SpawnLocation>> loaded = load(KEY_A);
+        assertFalse(loaded.containsKey("goblin"));
+        assertTrue(loaded.containsKey("hill giant"));
+
+        // Mobs that no longer have spawns at all are dropped too
+        spawns.remove("hill giant");
+        assertTrue(load(KEY_A).isEmpty());
+    }
+
+    @Test
+    public void testMissingOrCorruptFile() throws Exception
+    {
+        assertTrue(load(KEY_A).isEmpty());
+
+        Files.write(cacheFile.toPath(), new byte[]{1, 2, 3});
+        assertTrue(load(KEY_A).isEmpty());
+    }
+
+    private void save(byte[] key)
+    {
+        SpawnLocationCache.save(cacheFile, key, locations, name -> SpawnLocationCache.hashSpawns(spawns.get(name)));
+    }
+
+    private Map<String, List<MobSpawnData.SpawnLocation>> load(byte[] key)
+    {
+        return SpawnLocationCache.load(cacheFile, key, name -> SpawnLocationCache.hashSpawns(spawns.get(name)));
+    }
+
+    private static byte[] key(int seed)
+    {
+        byte[] key = new byte[32];
+        Arrays.fill(key, (byte) seed);
+        return key;
+    }
+}